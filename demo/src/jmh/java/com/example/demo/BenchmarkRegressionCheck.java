@@ -0,0 +1,111 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result file with the published baseline (a result file in the same
+ * format) and exits non-zero when any benchmark got slower by more than the threshold.
+ * Benchmarks missing from either side are listed but never fail the check, so a filtered run
+ * or a newly added benchmark does not need a new baseline first. A missing baseline file fails
+ * the check unless it is explicitly allowed, so the gate cannot pass without comparing anything.
+ *
+ * <p>Arguments: baseline file, result file, allowed slowdown in percent, and optionally
+ * {@code true} to skip the comparison when there is no baseline file.
+ */
+public class BenchmarkRegressionCheck {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 3 && args.length != 4) {
+			System.err.println("Usage: BenchmarkRegressionCheck <baseline.json> <results.json> <threshold percent> [allow missing baseline]");
+			System.exit(2);
+		}
+		Path baselineFile = Paths.get(args[0]);
+		Path resultFile = Paths.get(args[1]);
+		double threshold = Double.parseDouble(args[2]) / 100;
+		boolean allowMissingBaseline = args.length == 4 && Boolean.parseBoolean(args[3]);
+		if (!Files.exists(baselineFile)) {
+			if (allowMissingBaseline) {
+				System.out.println("Skipping regression check: no baseline at " + baselineFile);
+				return;
+			}
+			System.err.println("No baseline at " + baselineFile + "; publish one from the reference machine with "
+					+ "./gradlew jmh jmhBaseline, or pass -Pjmh.allowMissingBaseline to skip the comparison");
+			System.exit(2);
+		}
+
+		Map<String, Score> baseline = read(baselineFile);
+		Map<String, Score> results = read(resultFile);
+		List<String> regressions = new ArrayList<>();
+		System.out.printf("%-80s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+		for (Map.Entry<String, Score> entry : results.entrySet()) {
+			Score current = entry.getValue();
+			Score reference = baseline.get(entry.getKey());
+			if (reference == null) {
+				System.out.printf("%-80s %14s %14.3f %9s%n", entry.getKey(), "-", current.value(), "new");
+				continue;
+			}
+			if (!reference.unit().equals(current.unit()) || !reference.mode().equals(current.mode())) {
+				System.out.printf("%-80s %14s %14s %9s%n", entry.getKey(), reference.unit(), current.unit(), "skipped");
+				continue;
+			}
+			// Positive means slower, whichever way the mode counts
+			double slowdown = current.higherIsBetter()
+					? reference.value() / current.value() - 1
+					: current.value() / reference.value() - 1;
+			System.out.printf("%-80s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), reference.value(), current.value(),
+					slowdown * 100, slowdown > threshold ? "  REGRESSION" : "");
+			if (slowdown > threshold) {
+				regressions.add(entry.getKey());
+			}
+		}
+		for (String key : baseline.keySet()) {
+			if (!results.containsKey(key)) {
+				System.out.printf("%-80s %14.3f %14s %9s%n", key, baseline.get(key).value(), "-", "not run");
+			}
+		}
+
+		if (!regressions.isEmpty()) {
+			System.err.printf("%d benchmark(s) regressed by more than %.0f%%: %s%n",
+					regressions.size(), threshold * 100, regressions);
+			System.exit(1);
+		}
+		System.out.printf("No benchmark regressed by more than %.0f%%%n", threshold * 100);
+	}
+
+	// Keyed by benchmark method and parameter values, e.g. ImageServingBenchmark.serveStreamed{fileBytes=200000}
+	private static Map<String, Score> read(Path file) throws IOException {
+		Map<String, Score> scores = new LinkedHashMap<>();
+		for (JsonNode run : new ObjectMapper().readTree(file.toFile())) {
+			String benchmark = run.path("benchmark").asText();
+			String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+			Map<String, String> params = new TreeMap<>();
+			for (Iterator<Map.Entry<String, JsonNode>> it = run.path("params").fields(); it.hasNext(); ) {
+				Map.Entry<String, JsonNode> param = it.next();
+				params.put(param.getKey(), param.getValue().asText());
+			}
+			JsonNode metric = run.path("primaryMetric");
+			scores.put(params.isEmpty() ? name : name + params,
+					new Score(run.path("mode").asText(), metric.path("score").asDouble(), metric.path("scoreUnit").asText()));
+		}
+		return scores;
+	}
+
+	private record Score(String mode, double value, String unit) {
+
+		boolean higherIsBetter() {
+			return "thrpt".equals(mode);
+		}
+	}
+}
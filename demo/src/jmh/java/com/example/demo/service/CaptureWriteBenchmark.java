@@ -0,0 +1,78 @@
+package com.example.demo.service;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.entity.Audit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording a capture once the analysis is back: parsing it, creating or updating the asset and
+ * writing the audit, through the real services and migrations against an in-memory H2. New
+ * assets also draw a device number from the allocator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CaptureWriteBenchmark {
+
+	private static final String NEW_ASSET = """
+			{"department": "Finance", "serialNumber": "SN-7Q2K9X4", "model": "Latitude 5420",
+			 "manufacturer": "Dell", "location": "Floor 3, desk 15", "condition": "Good"}""";
+
+	private static final String EXISTING_ASSET = """
+			{"deviceNumber": "ASSET-2024-00042", "department": "Finance", "serialNumber": "SN-7Q2K9X4",
+			 "model": "Latitude 5420", "manufacturer": "Dell", "location": "Floor 3, desk 15", "condition": "Fair"}""";
+
+	private ConfigurableApplicationContext context;
+	private AssetAuditService assetAuditService;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		context = new SpringApplicationBuilder(DemoApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:capture-benchmark;DB_CLOSE_DELAY=-1",
+						"spring.jpa.show-sql=false",
+						"spring.main.banner-mode=off",
+						"logging.level.root=WARN",
+						"file.upload-dir=" + Files.createTempDirectory("capture-benchmark"))
+				.run();
+		assetAuditService = context.getBean(AssetAuditService.class);
+		assetAuditService.recordCapture(EXISTING_ASSET, "uploads/benchmark.jpg", "benchmark", null, null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Audit recordNewAsset() {
+		return assetAuditService.recordCapture(NEW_ASSET, "uploads/benchmark.jpg", "benchmark", 10.77, 106.70);
+	}
+
+	@Benchmark
+	public Audit recordExistingAsset() {
+		return assetAuditService.recordCapture(EXISTING_ASSET, "uploads/benchmark.jpg", "benchmark", 10.77, 106.70);
+	}
+}
@@ -0,0 +1,133 @@
+package com.example.demo.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Assets within 200 m" over a city-sized cloud of assets, answered by {@link GeoIndex} and by
+ * the only option the database had before: a coordinate range scan over an unindexed table,
+ * trimmed to the circle in Java.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class GeoIndexBenchmark {
+
+	// Roughly Ho Chi Minh City: 0.4 x 0.4 degrees, about 44 km square
+	private static final double MIN_LAT = 10.6;
+	private static final double MIN_LON = 106.5;
+	private static final double SPAN = 0.4;
+	private static final double RADIUS_METERS = 200;
+	private static final int QUERIES = 1024;
+
+	@Param({"1000000"})
+	private int assets;
+
+	private GeoIndex index;
+	private Connection connection;
+	private PreparedStatement rangeScan;
+	private double[][] queries;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		Random random = new Random(42);
+		index = new GeoIndex(250);
+		connection = DriverManager.getConnection("jdbc:h2:mem:geo-benchmark;DB_CLOSE_DELAY=-1");
+		try (Statement ddl = connection.createStatement()) {
+			ddl.execute("CREATE TABLE assets (id BIGINT PRIMARY KEY, latitude DOUBLE, longitude DOUBLE)");
+		}
+		connection.setAutoCommit(false);
+		try (PreparedStatement insert = connection.prepareStatement("INSERT INTO assets VALUES (?, ?, ?)")) {
+			for (int id = 1; id <= assets; id++) {
+				double lat = MIN_LAT + random.nextDouble() * SPAN;
+				double lon = MIN_LON + random.nextDouble() * SPAN;
+				index.put(id, lat, lon);
+				insert.setLong(1, id);
+				insert.setDouble(2, lat);
+				insert.setDouble(3, lon);
+				insert.addBatch();
+				if (id % 10_000 == 0) {
+					insert.executeBatch();
+				}
+			}
+			insert.executeBatch();
+		}
+		connection.commit();
+
+		rangeScan = connection.prepareStatement("SELECT id, latitude, longitude FROM assets "
+				+ "WHERE latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?");
+		queries = new double[QUERIES][];
+		for (int i = 0; i < QUERIES; i++) {
+			queries[i] = new double[]{MIN_LAT + random.nextDouble() * SPAN, MIN_LON + random.nextDouble() * SPAN};
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws SQLException {
+		rangeScan.close();
+		connection.close();
+	}
+
+	@Benchmark
+	public List<GeoIndex.GeoHit> geoIndexNearby() {
+		double[] query = nextQuery();
+		return index.nearby(query[0], query[1], RADIUS_METERS, 500);
+	}
+
+	@Benchmark
+	public List<GeoIndex.GeoHit> geoIndexWithinBox() {
+		double[] query = nextQuery();
+		return index.within(query[0] - 0.002, query[1] - 0.002, query[0] + 0.002, query[1] + 0.002, 500);
+	}
+
+	@Benchmark
+	public void databaseScanNearby(Blackhole blackhole) throws SQLException {
+		double[] query = nextQuery();
+		double latSpan = Math.toDegrees(RADIUS_METERS / GeoIndex.EARTH_RADIUS_METERS);
+		double lonSpan = latSpan / Math.cos(Math.toRadians(query[0]));
+		rangeScan.setDouble(1, query[0] - latSpan);
+		rangeScan.setDouble(2, query[0] + latSpan);
+		rangeScan.setDouble(3, query[1] - lonSpan);
+		rangeScan.setDouble(4, query[1] + lonSpan);
+		try (ResultSet rs = rangeScan.executeQuery()) {
+			while (rs.next()) {
+				double distance = GeoIndex.distanceMeters(query[0], query[1], rs.getDouble(2), rs.getDouble(3));
+				if (distance <= RADIUS_METERS) {
+					blackhole.consume(rs.getLong(1));
+				}
+			}
+		}
+	}
+
+	private double[] nextQuery() {
+		next = (next + 1) & (QUERIES - 1);
+		return queries[next];
+	}
+
+}
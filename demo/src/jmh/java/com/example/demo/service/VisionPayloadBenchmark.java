@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.service.ImagePreprocessor.PreparedImage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU work around a Vision AI call: writing the request with the image base64-encoded into
+ * it, pulling the message content out of the chat completion, and parsing the analysis JSON
+ * into the map a capture is recorded from. No request leaves the process.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VisionPayloadBenchmark {
+
+	private static final String ANALYSIS = """
+			{
+			    "deviceNumber": "ASSET-2024-00042",
+			    "department": "Finance",
+			    "barcode": "4006381333931",
+			    "serialNumber": "SN-7Q2K9X4",
+			    "model": "Latitude 5420",
+			    "manufacturer": "Dell",
+			    "location": "Floor 3, desk 15",
+			    "condition": "Good",
+			    "notes": "Sticker partly worn, asset tag readable"
+			}""";
+
+	private VisionAIService visionAIService;
+	private RemoteVisionAnalyzer remoteVisionAnalyzer;
+	private String chatCompletion;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		VisionApiClient client = new VisionApiClient(Duration.ofSeconds(5), Duration.ofSeconds(60), 8,
+				Duration.ofSeconds(10), 3, Duration.ofMillis(500), Duration.ofSeconds(30), 5, Duration.ofSeconds(30),
+				new WorkerThreads(false));
+		remoteVisionAnalyzer = new RemoteVisionAnalyzer(client, new ImagePreprocessor(1024, 0.85f));
+		VisionAnalysisCache cache = new VisionAnalysisCache(null, 1000, Duration.ofHours(1), false);
+		visionAIService = new VisionAIService(List.of(remoteVisionAnalyzer), RemoteVisionAnalyzer.NAME, cache, 4, 4,
+				new WorkerThreads(false));
+		chatCompletion = """
+				{"id": "chatcmpl-1", "object": "chat.completion", "created": 1700000000, "model": "gpt-4o",
+				 "choices": [{"index": 0, "finish_reason": "stop",
+				   "message": {"role": "assistant", "content": %s}}],
+				 "usage": {"prompt_tokens": 1105, "completion_tokens": 96, "total_tokens": 1201}}"""
+				.formatted(quoted(ANALYSIS));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		visionAIService.shutdown();
+	}
+
+	@Benchmark
+	public void writeRequestBody(Image image) throws IOException {
+		remoteVisionAnalyzer.writeVisionRequest(OutputStream.nullOutputStream(), "Analyze this asset image", image.images);
+	}
+
+	@Benchmark
+	public String parseVisionResponse() throws IOException {
+		return remoteVisionAnalyzer.parseVisionResponse(chatCompletion);
+	}
+
+	@Benchmark
+	public Map<String, Object> parseAnalysisResult() {
+		return visionAIService.parseAnalysisResult(ANALYSIS);
+	}
+
+	private static String quoted(String text) {
+		return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+	}
+
+	// Only the request body benchmark depends on the image size
+	@State(Scope.Benchmark)
+	public static class Image {
+
+		// Size of the prepared image sent to the model; preprocessing keeps most photos near the lower end
+		@Param({"150000", "600000"})
+		private int imageBytes;
+
+		private List<PreparedImage> images;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			byte[] jpeg = new byte[imageBytes];
+			new Random(42).nextBytes(jpeg);
+			images = List.of(new PreparedImage(jpeg, "image/jpeg"));
+		}
+	}
+}
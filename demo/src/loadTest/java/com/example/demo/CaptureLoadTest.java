@@ -0,0 +1,220 @@
+package com.example.demo;
+
+import com.example.demo.service.AssetImageAnalyzer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires concurrent single-image captures at the application, once with platform threads and once
+ * with virtual threads, and prints throughput and latency for each. Vision AI is replaced by a
+ * stub engine that sleeps for a fixed time, so the numbers show how the server copes with
+ * requests that spend most of their life blocked rather than how fast the model is.
+ *
+ * <p>Arguments: requests, client concurrency, stub latency in milliseconds. The virtual run needs
+ * a Java 21 runtime and is skipped on older ones.
+ */
+public class CaptureLoadTest {
+
+	private static final int WARMUP_REQUESTS = 50;
+
+	public static void main(String[] args) throws Exception {
+		int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+		long latencyMillis = args.length > 2 ? Long.parseLong(args[2]) : 200;
+
+		System.out.printf("%d captures, %d concurrent clients, stub analyzer latency %d ms%n",
+				requests, concurrency, latencyMillis);
+		List<Result> results = new ArrayList<>();
+		results.add(run(false, requests, concurrency, latencyMillis));
+		if (Runtime.version().feature() >= 21) {
+			results.add(run(true, requests, concurrency, latencyMillis));
+		} else {
+			System.out.println("Java " + Runtime.version().feature() + " runtime, skipping virtual threads "
+					+ "(build with -PjavaVersion=21)");
+		}
+
+		System.out.printf("%n%-10s %8s %7s %10s %9s %9s %9s%n", "threads", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+		for (Result result : results) {
+			System.out.printf("%-10s %8d %7d %10.1f %9.1f %9.1f %9.1f%n", result.mode(), result.requests(), result.errors(),
+					result.throughput(), result.percentileMillis(0.50), result.percentileMillis(0.99), result.percentileMillis(1.0));
+		}
+	}
+
+	private static Result run(boolean virtual, int requests, int concurrency, long latencyMillis) throws Exception {
+		String mode = virtual ? "virtual" : "platform";
+		Path uploads = Files.createTempDirectory("capture-load-" + mode);
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class, StubAnalyzerConfig.class)
+				.properties(
+						"server.port=0",
+						"spring.threads.virtual.enabled=" + virtual,
+						"spring.datasource.url=jdbc:h2:mem:capture-load-" + mode + ";DB_CLOSE_DELAY=-1",
+						"spring.h2.console.enabled=false",
+						"spring.jpa.show-sql=false",
+						"spring.main.banner-mode=off",
+						"logging.level.root=WARN",
+						"file.upload-dir=" + uploads,
+						"vision.ai.engine=" + StubAnalyzerConfig.NAME,
+						"loadtest.analyzer-latency=" + latencyMillis + "ms")
+				.run();
+		try {
+			int port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port"));
+			URI captureUri = URI.create("http://127.0.0.1:" + port + "/audit/capture");
+			HttpClient client = HttpClient.newBuilder()
+					.version(HttpClient.Version.HTTP_1_1)
+					.connectTimeout(Duration.ofSeconds(10))
+					.build();
+
+			AtomicInteger imageSeed = new AtomicInteger();
+			fire(client, captureUri, WARMUP_REQUESTS, Math.min(concurrency, WARMUP_REQUESTS), imageSeed);
+			long started = System.nanoTime();
+			long[] latencies = fire(client, captureUri, requests, concurrency, imageSeed);
+			long elapsed = System.nanoTime() - started;
+
+			int errors = (int) Arrays.stream(latencies).filter(latency -> latency < 0).count();
+			long[] succeeded = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+			Result result = new Result(mode, requests, errors, requests * 1e9 / elapsed, succeeded);
+			System.out.printf("%s: %.1f req/s, p99 %.1f ms, %d errors%n",
+					mode, result.throughput(), result.percentileMillis(0.99), errors);
+			return result;
+		} finally {
+			context.close();
+		}
+	}
+
+	// Latency of each capture in nanoseconds, or -1 when it did not complete
+	private static long[] fire(HttpClient client, URI captureUri, int requests, int concurrency,
+			AtomicInteger imageSeed) throws Exception {
+		long[] latencies = new long[requests];
+		AtomicInteger next = new AtomicInteger();
+		ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int i = 0; i < concurrency; i++) {
+				workers.add(clients.submit(() -> {
+					for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+						latencies[n] = capture(client, captureUri, imageSeed.incrementAndGet());
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+		return latencies;
+	}
+
+	private static long capture(HttpClient client, URI captureUri, int seed) throws InterruptedException {
+		String boundary = "----capture-load-" + seed;
+		byte[] body = multipart(boundary, seed);
+		HttpRequest request = HttpRequest.newBuilder(captureUri)
+				.timeout(Duration.ofMinutes(2))
+				.header("Content-Type", "multipart/form-data; boundary=" + boundary)
+				.POST(HttpRequest.BodyPublishers.ofByteArray(body))
+				.build();
+		long started = System.nanoTime();
+		try {
+			HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+			// A failed capture redirects back to the form with an error
+			return response.statusCode() == 200 ? System.nanoTime() - started : -1;
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	private static byte[] multipart(String boundary, int seed) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		String head = "--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"auditorName\"\r\n\r\n"
+				+ "load-test\r\n"
+				+ "--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"imageFile\"; filename=\"capture-" + seed + ".png\"\r\n"
+				+ "Content-Type: image/png\r\n\r\n";
+		out.writeBytes(head.getBytes(StandardCharsets.UTF_8));
+		out.writeBytes(image(seed));
+		out.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+		return out.toByteArray();
+	}
+
+	// A distinct small image per capture, so neither the analysis cache nor image dedup short-circuits it
+	private static byte[] image(int seed) {
+		BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB);
+		for (int i = 0; i < 32; i++) {
+			image.setRGB(i, i, seed);
+			image.setRGB(31 - i, i, ~seed);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try {
+			ImageIO.write(image, "png", out);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	private record Result(String mode, int requests, int errors, double throughput, long[] sortedLatencies) {
+
+		double percentileMillis(double percentile) {
+			if (sortedLatencies.length == 0) {
+				return Double.NaN;
+			}
+			int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+			return sortedLatencies[Math.max(0, index)] / 1e6;
+		}
+	}
+
+	@Configuration
+	static class StubAnalyzerConfig {
+
+		static final String NAME = "stub";
+
+		// Stands in for the Vision AI round trip: blocks for a fixed time and reads nothing
+		@Bean
+		AssetImageAnalyzer stubAnalyzer(@Value("${loadtest.analyzer-latency:200ms}") Duration latency) {
+			return new AssetImageAnalyzer() {
+
+				@Override
+				public String getName() {
+					return NAME;
+				}
+
+				@Override
+				public String analyze(byte[] imageBytes) throws IOException {
+					try {
+						Thread.sleep(latency.toMillis());
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IOException("Interrupted", e);
+					}
+					return "{\"manufacturer\":\"LoadTest\",\"model\":\"Stub\",\"condition\":\"Good\"}";
+				}
+			};
+		}
+	}
+}
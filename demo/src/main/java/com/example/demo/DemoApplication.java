@@ -1,15 +1,81 @@
 package com.example.demo;
 
+import com.example.demo.dto.ExportQuery;
+import com.example.demo.service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 
 @SpringBootApplication
 @EnableJpaAuditing
+@EnableScheduling
+@Slf4j
 public class DemoApplication {
 
+	private static final String EXPORT_OPTION = "export";
+
 	public static void main(String[] args) {
-		SpringApplication.run(DemoApplication.class, args);
+		SpringApplication application = new SpringApplication(DemoApplication.class);
+		// One-off exports run without the web server and exit when done:
+		// java -jar demo.jar --export=audits --format=csv --department=IT --output=audits.csv.gz
+		boolean export = Arrays.stream(args).anyMatch(arg -> arg.startsWith("--" + EXPORT_OPTION + "="));
+		if (export) {
+			application.setWebApplicationType(WebApplicationType.NONE);
+		}
+		ConfigurableApplicationContext context = application.run(args);
+		if (export) {
+			System.exit(SpringApplication.exit(context));
+		}
+	}
+
+	@Bean
+	ApplicationRunner exportRunner(ExportService exportService) {
+		return args -> {
+			if (!args.containsOption(EXPORT_OPTION)) {
+				return;
+			}
+			ExportQuery query = new ExportQuery(
+					option(args, EXPORT_OPTION),
+					optionOrDefault(args, "format", ExportService.FORMAT_CSV).toLowerCase(),
+					Boolean.parseBoolean(optionOrDefault(args, "gzip", "true")),
+					option(args, "department"),
+					option(args, "status"),
+					args.containsOption("from") ? LocalDateTime.parse(option(args, "from")) : null,
+					args.containsOption("to") ? LocalDateTime.parse(option(args, "to")) : null);
+			exportService.validate(query);
+
+			Path output = Paths.get(optionOrDefault(args, "output", exportService.fileName(query)));
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+				long rows = exportService.export(query, out);
+				log.info("Exported {} rows to {}", rows, output.toAbsolutePath());
+			}
+		};
+	}
+
+	private static String option(ApplicationArguments args, String name) {
+		List<String> values = args.getOptionValues(name);
+		return values == null || values.isEmpty() ? null : values.get(0);
+	}
+
+	private static String optionOrDefault(ApplicationArguments args, String name, String defaultValue) {
+		String value = option(args, name);
+		return value != null ? value : defaultValue;
 	}
 
 }
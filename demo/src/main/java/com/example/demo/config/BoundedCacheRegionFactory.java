@@ -0,0 +1,92 @@
+package com.example.demo.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process second-level and query cache for Hibernate, selected with
+ * {@code hibernate.cache.region.factory_class}. Every entity and query results region is an LRU
+ * map bounded by {@code hibernate.cache.bounded.max_entries} whose entries expire after
+ * {@code hibernate.cache.bounded.time_to_live_seconds}.
+ */
+public class BoundedCacheRegionFactory extends RegionFactoryTemplate {
+
+    public static final String MAX_ENTRIES = "hibernate.cache.bounded.max_entries";
+    public static final String TIME_TO_LIVE_SECONDS = "hibernate.cache.bounded.time_to_live_seconds";
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    private static final long DEFAULT_TIME_TO_LIVE_SECONDS = 600;
+
+    private final Map<String, BoundedRegionStorage> regions = new ConcurrentHashMap<>();
+    private int maxEntries;
+    private long timeToLiveMillis;
+    private volatile String timestampsRegionName;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        maxEntries = (int) setting(configValues, MAX_ENTRIES, DEFAULT_MAX_ENTRIES);
+        timeToLiveMillis = setting(configValues, TIME_TO_LIVE_SECONDS, DEFAULT_TIME_TO_LIVE_SECONDS) * 1000;
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(StorageAccess::release);
+        regions.clear();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return register(regionConfig.getRegionName(), maxEntries, timeToLiveMillis);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return register(regionName, maxEntries, timeToLiveMillis);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        // Holds one last-modified time per table. Losing one would make stale query results look current,
+        // so this region is never evicted or expired
+        timestampsRegionName = regionName;
+        return register(regionName, Integer.MAX_VALUE, 0);
+    }
+    
+    // Consulted on every cached query, so its hits say nothing about how well entities are cached
+    public String getTimestampsRegionName() {
+        return timestampsRegionName;
+    }
+
+    // Hit, miss and eviction counts per region, keyed by region name
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        regions.forEach((name, storage) -> stats.put(name, storage.getStats()));
+        return stats;
+    }
+
+    private BoundedRegionStorage register(String regionName, int regionMaxEntries, long regionTimeToLiveMillis) {
+        BoundedRegionStorage storage = new BoundedRegionStorage(regionMaxEntries, regionTimeToLiveMillis);
+        regions.put(regionName, storage);
+        return storage;
+    }
+
+    private static long setting(Map<String, Object> configValues, String name, long defaultValue) {
+        Object value = configValues.get(name);
+        if (value == null || value.toString().isBlank()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.toString().trim());
+    }
+}
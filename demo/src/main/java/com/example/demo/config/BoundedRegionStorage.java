@@ -0,0 +1,116 @@
+package com.example.demo.config;
+
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One cache region: an access-ordered map evicting its least recently used entry past maxEntries
+class BoundedRegionStorage implements DomainDataStorageAccess {
+
+    private final long timeToLiveMillis;
+    private final Map<Object, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong puts = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    // A timeToLiveMillis of zero keeps entries until they are evicted or invalidated
+    BoundedRegionStorage(int maxEntries, long timeToLiveMillis) {
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.isLive(now)) {
+                    hits.incrementAndGet();
+                    return entry.value();
+                }
+                entries.remove(key);
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        long expiresAt = timeToLiveMillis > 0 ? System.currentTimeMillis() + timeToLiveMillis : Long.MAX_VALUE;
+        synchronized (entries) {
+            entries.put(key, new Entry(value, expiresAt));
+        }
+        puts.incrementAndGet();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            return entry != null && entry.isLive(now);
+        }
+    }
+
+    @Override
+    public void evictData() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    @Override
+    public void evictData(Object key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    @Override
+    public void release() {
+        evictData();
+    }
+
+    Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("puts", puts.get());
+        stats.put("evictions", evictions.get());
+        stats.put("expirations", expirations.get());
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hitCount / total);
+        return stats;
+    }
+
+    private record Entry(Object value, long expiresAt) {
+
+        boolean isLive(long now) {
+            return expiresAt > now;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned scripts in {@code db/migration} ({@code V<version>__<description>.sql})
+ * that are not yet recorded in {@code schema_version}, in version order, before JPA starts.
+ * H2 commits DDL as it goes, so scripts are written to be safe to re-run after a failure.
+ * Applied scripts are checksummed so edits to them are caught at startup.
+ */
+@Component
+@Slf4j
+public class SchemaMigrator implements InitializingBean {
+    
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    
+    private final DataSource dataSource;
+    private final String location;
+    private final boolean enabled;
+
+    public SchemaMigrator(DataSource dataSource,
+                          @Value("${app.migrations.location:classpath*:db/migration/}") String location,
+                          @Value("${app.migrations.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.location = location;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException, IOException {
+        if (!enabled) {
+            return;
+        }
+        
+        List<Migration> migrations = findMigrations();
+        try (Connection connection = dataSource.getConnection()) {
+            createVersionTable(connection);
+            Map<Integer, String> applied = loadAppliedVersions(connection);
+            
+            for (Migration migration : migrations) {
+                String checksum = applied.get(migration.version());
+                if (checksum != null) {
+                    if (!checksum.equals(migration.checksum())) {
+                        throw new IllegalStateException("Migration V" + migration.version()
+                                + " was changed after it was applied; add a new migration instead");
+                    }
+                    continue;
+                }
+                apply(connection, migration);
+            }
+        }
+    }
+    
+    private List<Migration> findMigrations() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location + "V*__*.sql");
+        Map<Integer, Migration> byVersion = new HashMap<>();
+        for (Resource resource : resources) {
+            Matcher matcher = SCRIPT_NAME.matcher(String.valueOf(resource.getFilename()));
+            if (!matcher.matches()) {
+                continue;
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            Migration migration = new Migration(version, matcher.group(2).replace('_', ' '), resource, checksum(resource));
+            if (byVersion.put(version, migration) != null) {
+                throw new IllegalStateException("Duplicate migration version V" + version);
+            }
+        }
+        return byVersion.values().stream().sorted(Comparator.comparingInt(Migration::version)).toList();
+    }
+    
+    private void createVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "checksum VARCHAR(32) NOT NULL, " +
+                    "installed_at TIMESTAMP NOT NULL)");
+        }
+    }
+    
+    private Map<Integer, String> loadAppliedVersions(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        return applied;
+    }
+    
+    private void apply(Connection connection, Migration migration) throws SQLException {
+        log.info("Applying schema migration V{} ({})", migration.version(), migration.description());
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            ScriptUtils.executeSqlScript(connection, new EncodedResource(migration.script(), StandardCharsets.UTF_8));
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, checksum, installed_at) VALUES (?, ?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setString(3, migration.checksum());
+                insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    private static String checksum(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            // Line endings differ between checkouts, so they are not part of the checksum
+            String script = StreamUtils.copyToString(in, StandardCharsets.UTF_8).replace("\r\n", "\n");
+            return DigestUtils.md5DigestAsHex(script.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    
+    private record Migration(int version, String description, Resource script, String checksum) {
+    }
+    
+    // Makes the EntityManagerFactory wait until the schema is up to date
+    @Component
+    static class EntityManagerFactoryDependsOnSchemaMigrator extends EntityManagerFactoryDependsOnPostProcessor {
+        
+        EntityManagerFactoryDependsOnSchemaMigrator() {
+            super(SchemaMigrator.class);
+        }
+    }
+}
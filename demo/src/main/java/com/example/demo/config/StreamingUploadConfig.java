@@ -0,0 +1,38 @@
+package com.example.demo.config;
+
+import com.example.demo.controller.StreamingCaptureServlet;
+import com.example.demo.service.CaptureJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+// Mounts the non-blocking capture upload beside the DispatcherServlet; an exact mapping wins over its "/"
+@Configuration
+public class StreamingUploadConfig {
+
+    @Bean
+    public StreamingCaptureServlet streamingCaptureServlet(CaptureJobService captureJobService,
+                                                           ObjectMapper objectMapper,
+                                                           @Value("${file.upload-dir}") String uploadDir,
+                                                           @Value("${spring.servlet.multipart.max-file-size:10MB}") DataSize maxFileSize,
+                                                           @Value("${capture.upload.timeout:5m}") Duration uploadTimeout) {
+        return new StreamingCaptureServlet(captureJobService, objectMapper, Paths.get(uploadDir, "staging"),
+                maxFileSize.toBytes(), uploadTimeout);
+    }
+
+    @Bean
+    public ServletRegistrationBean<StreamingCaptureServlet> streamingCaptureServletRegistration(
+            StreamingCaptureServlet servlet) {
+        ServletRegistrationBean<StreamingCaptureServlet> registration =
+                new ServletRegistrationBean<>(servlet, "/api/captures/stream");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
@@ -1,21 +1,36 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.AssetSummary;
+import com.example.demo.dto.AuditSummary;
+import com.example.demo.dto.BatchCaptureResult;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.DashboardStats;
 import com.example.demo.entity.Asset;
 import com.example.demo.entity.Audit;
 import com.example.demo.service.AssetAuditService;
+import com.example.demo.service.DashboardStatsService;
+import com.example.demo.service.RenditionService.Rendition;
+import com.example.demo.service.RenditionService.RenditionFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,20 +40,24 @@ import java.util.Optional;
 @Slf4j
 public class AssetAuditController {
     
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     private final AssetAuditService assetAuditService;
+    private final DashboardStatsService dashboardStatsService;
+    private final ObjectMapper objectMapper;
 
-    public AssetAuditController(AssetAuditService assetAuditService) {
+    public AssetAuditController(AssetAuditService assetAuditService,
+                                DashboardStatsService dashboardStatsService,
+                                ObjectMapper objectMapper) {
         this.assetAuditService = assetAuditService;
+        this.dashboardStatsService = dashboardStatsService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping("/audit")
     public String auditDashboard(Model model) {
-        List<Asset> assets = assetAuditService.getAllAssets();
-        List<Audit> audits = assetAuditService.getAllAudits();
-        
-        model.addAttribute("assets", assets);
-        model.addAttribute("audits", audits);
-        
+        // Counters kept in memory, so the page costs the same however many rows there are
+        model.addAttribute("stats", dashboardStatsService.getStats());
         return "audit-dashboard";
     }
     
@@ -72,6 +91,29 @@ public class AssetAuditController {
         }
     }
     
+    @PostMapping("/audit/capture/batch")
+    public ResponseEntity<Map<String, Object>> processBatchCapture(@RequestParam("imageFiles") List<MultipartFile> imageFiles,
+                                                                   @RequestParam("auditorName") String auditorName,
+                                                                   @RequestParam(value = "latitude", required = false) Double latitude,
+                                                                   @RequestParam(value = "longitude", required = false) Double longitude) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            List<BatchCaptureResult> results = assetAuditService.processAssetImages(imageFiles, auditorName, latitude, longitude);
+            long captured = results.stream().filter(BatchCaptureResult::succeeded).count();
+            
+            // Captured images are committed even when others fail, so clients retry only the failed ones
+            response.put("success", captured == results.size());
+            response.put("message", "Captured " + captured + " of " + results.size() + " images");
+            response.put("results", results);
+            return ResponseEntity.status(captured == results.size() ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(response);
+            
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "Error processing batch: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
     @GetMapping("/audit/complete/{auditId}")
     public String completeAuditPage(@PathVariable Long auditId, Model model) {
         Optional<Audit> auditOpt = assetAuditService.getAuditById(auditId);
@@ -105,14 +147,14 @@ public class AssetAuditController {
     
     @GetMapping("/audit/assets")
     public String assetsList(Model model) {
-        List<Asset> assets = assetAuditService.getAllAssets();
+        List<AssetSummary> assets = assetAuditService.getAllAssets();
         model.addAttribute("assets", assets);
         return "assets-list";
     }
     
     @GetMapping("/audit/audits")
     public String auditsList(Model model) {
-        List<Audit> audits = assetAuditService.getAllAudits();
+        List<AuditSummary> audits = assetAuditService.getAllAudits();
         model.addAttribute("audits", audits);
         return "audits-list";
     }
@@ -132,13 +174,40 @@ public class AssetAuditController {
     // REST API endpoints
     
     @GetMapping("/api/assets")
-    public ResponseEntity<List<Asset>> getAllAssets() {
-        return ResponseEntity.ok(assetAuditService.getAllAssets());
+    public ResponseEntity<CursorPage<AssetSummary>> getAllAssets(@RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam(value = "size", required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(assetAuditService.getAssetPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
     @GetMapping("/api/audits")
-    public ResponseEntity<List<Audit>> getAllAudits() {
-        return ResponseEntity.ok(assetAuditService.getAllAudits());
+    public ResponseEntity<CursorPage<AuditSummary>> getAllAudits(@RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam(value = "size", required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(assetAuditService.getAuditPage(cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping("/api/dashboard/stats")
+    public ResponseEntity<DashboardStats> getDashboardStats() {
+        return ResponseEntity.ok(dashboardStatsService.getStats());
+    }
+    
+    @GetMapping("/api/assets/stream")
+    public ResponseEntity<StreamingResponseBody> streamAssets() {
+        StreamingResponseBody body = out -> assetAuditService.streamAssets(asset -> writeNdjsonLine(out, asset));
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+    }
+    
+    @GetMapping("/api/audits/stream")
+    public ResponseEntity<StreamingResponseBody> streamAudits() {
+        StreamingResponseBody body = out -> assetAuditService.streamAudits(audit -> writeNdjsonLine(out, audit));
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
     }
     
     @GetMapping("/api/assets/{id}")
@@ -156,22 +225,38 @@ public class AssetAuditController {
     }
     
     @GetMapping("/api/assets/department/{department}")
-    public ResponseEntity<List<Asset>> getAssetsByDepartment(@PathVariable String department) {
+    public ResponseEntity<List<AssetSummary>> getAssetsByDepartment(@PathVariable String department) {
         return ResponseEntity.ok(assetAuditService.getAssetsByDepartment(department));
     }
     
     @GetMapping("/api/audits/auditor/{auditorName}")
-    public ResponseEntity<List<Audit>> getAuditsByAuditor(@PathVariable String auditorName) {
+    public ResponseEntity<List<AuditSummary>> getAuditsByAuditor(@PathVariable String auditorName) {
         return ResponseEntity.ok(assetAuditService.getAuditsByAuditor(auditorName));
     }
     
     @GetMapping("/images/assets/{filename:.+}")
-    public ResponseEntity<byte[]> getAssetImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> getAssetImage(@PathVariable String filename) {
         try {
-            byte[] imageBytes = assetAuditService.getAssetImage(filename);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.IMAGE_JPEG);
-            return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
+            Path imageFile = assetAuditService.getAssetImageFile(filename);
+            MediaType contentType = MediaTypeFactory.getMediaType(filename).orElse(MediaType.IMAGE_JPEG);
+            return FileResponses.serve(imageFile, contentType, ContentDisposition.inline().build());
+        } catch (IOException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/images/assets/renditions/{rendition}/{filename:.+}")
+    public ResponseEntity<Resource> getAssetImageRendition(@PathVariable String rendition,
+                                                           @PathVariable String filename) {
+        Optional<Rendition> renditionOpt = Rendition.fromName(rendition);
+        if (renditionOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        try {
+            RenditionFile file = assetAuditService.getAssetImageRendition(filename, renditionOpt.get());
+            return FileResponses.serve(file.path(), MediaType.parseMediaType(file.contentType()),
+                    ContentDisposition.inline().build());
         } catch (IOException e) {
             return ResponseEntity.notFound().build();
         }
@@ -202,4 +287,13 @@ public class AssetAuditController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+    
+    private void writeNdjsonLine(OutputStream out, Object row) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(row));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -0,0 +1,76 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ImportReport;
+import com.example.demo.service.AssetImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+@Controller
+@Slf4j
+public class AssetImportController {
+    
+    private final AssetImportService assetImportService;
+
+    public AssetImportController(AssetImportService assetImportService) {
+        this.assetImportService = assetImportService;
+    }
+
+    // Raw CSV or NDJSON body, parsed as it arrives: curl --data-binary @assets.csv -H 'Content-Type: text/csv'
+    @PostMapping(value = "/api/assets/import", consumes = {"text/csv", "application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> importAssets(InputStream body,
+                                          @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                          @RequestParam(value = "chunkSize", required = false) Integer chunkSize) {
+        String format = MediaType.parseMediaType(contentType).getSubtype().equals("csv")
+                ? AssetImportService.FORMAT_CSV
+                : AssetImportService.FORMAT_NDJSON;
+        return runImport(body, format, chunkSize);
+    }
+    
+    @PostMapping(value = "/api/assets/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importAssetFile(@RequestParam("file") MultipartFile file,
+                                             @RequestParam(value = "format", required = false) String format,
+                                             @RequestParam(value = "chunkSize", required = false) Integer chunkSize) {
+        if (format == null) {
+            String name = String.valueOf(file.getOriginalFilename()).toLowerCase();
+            format = name.endsWith(".csv") ? AssetImportService.FORMAT_CSV : AssetImportService.FORMAT_NDJSON;
+        }
+        try (InputStream input = file.getInputStream()) {
+            return runImport(input, format.toLowerCase(), chunkSize);
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorBody(e.getMessage()));
+        }
+    }
+    
+    private ResponseEntity<?> runImport(InputStream input, String format, Integer chunkSize) {
+        try {
+            ImportReport report = assetImportService.importAssets(input, format, chunkSize);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorBody(e.getMessage()));
+        } catch (IOException e) {
+            log.error("Asset import failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(errorBody("Import failed: " + e.getMessage()));
+        }
+    }
+    
+    private Map<String, Object> errorBody(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return response;
+    }
+}
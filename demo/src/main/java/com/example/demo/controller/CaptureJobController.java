@@ -0,0 +1,86 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.CaptureJob;
+import com.example.demo.service.CaptureJobService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+@Controller
+@Slf4j
+public class CaptureJobController {
+    
+    private final CaptureJobService captureJobService;
+
+    public CaptureJobController(CaptureJobService captureJobService) {
+        this.captureJobService = captureJobService;
+    }
+
+    @PostMapping(value = "/api/captures", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> submitCapture(@RequestParam("imageFile") MultipartFile imageFile,
+                                           @RequestParam("auditorName") String auditorName,
+                                           @RequestParam(value = "latitude", required = false) Double latitude,
+                                           @RequestParam(value = "longitude", required = false) Double longitude) {
+        return accept(() -> captureJobService.submit(imageFile, auditorName, latitude, longitude));
+    }
+    
+    // Raw image body: streamed straight from the socket to the assets directory, no multipart spooling
+    @PostMapping(value = "/api/captures", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> submitRawCapture(InputStream imageBody,
+                                              @RequestParam("auditorName") String auditorName,
+                                              @RequestParam(value = "latitude", required = false) Double latitude,
+                                              @RequestParam(value = "longitude", required = false) Double longitude) {
+        return accept(() -> captureJobService.submit(imageBody, auditorName, latitude, longitude));
+    }
+    
+    @GetMapping("/api/captures/{jobId}")
+    public ResponseEntity<CaptureJob> getCapture(@PathVariable Long jobId) {
+        Optional<CaptureJob> job = captureJobService.getJob(jobId);
+        return job.map(ResponseEntity::ok)
+                  .orElse(ResponseEntity.notFound().build());
+    }
+    
+    private ResponseEntity<?> accept(JobSubmission submission) {
+        try {
+            CaptureJob job = submission.submit();
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/captures/" + job.getId()))
+                    .body(job);
+        } catch (RejectedExecutionException e) {
+            // Backpressure: the client should retry once the queue drains
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(errorBody(e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(errorBody(e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(errorBody("Failed to store image: " + e.getMessage()));
+        }
+    }
+    
+    private Map<String, Object> errorBody(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return response;
+    }
+    
+    @FunctionalInterface
+    private interface JobSubmission {
+        CaptureJob submit() throws IOException;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.ExportQuery;
+import com.example.demo.service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@Controller
+@Slf4j
+public class ExportController {
+    
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // e.g. /api/export/audits?format=csv&department=IT&from=2025-01-01T00:00:00
+    @GetMapping("/api/export/{dataset}")
+    public ResponseEntity<?> export(@PathVariable String dataset,
+                                    @RequestParam(value = "format", defaultValue = "csv") String format,
+                                    @RequestParam(value = "gzip", defaultValue = "true") boolean gzip,
+                                    @RequestParam(value = "department", required = false) String department,
+                                    @RequestParam(value = "status", required = false) String status,
+                                    @RequestParam(value = "from", required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                    @RequestParam(value = "to", required = false)
+                                    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        ExportQuery query = new ExportQuery(dataset, format.toLowerCase(), gzip, department, status, from, to);
+        try {
+            exportService.validate(query);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        MediaType contentType = gzip ? MediaType.parseMediaType("application/gzip") : switch (query.format()) {
+            case ExportService.FORMAT_CSV -> MediaType.parseMediaType("text/csv");
+            case ExportService.FORMAT_NDJSON -> MediaType.parseMediaType("application/x-ndjson");
+            default -> MediaType.APPLICATION_OCTET_STREAM;
+        };
+        // Rows are written as they are read; nothing is materialized on the server
+        StreamingResponseBody body = out -> exportService.export(query, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(exportService.fileName(query)).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.demo.controller;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds file responses that Spring MVC streams from disk. Range requests are answered with
+ * 206 resource regions and If-None-Match / If-Modified-Since with 304, both by the
+ * {@code ResponseEntity} return value handler.
+ */
+final class FileResponses {
+    
+    // Stored files are UUID-named and never rewritten, so clients may keep them indefinitely
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private FileResponses() {
+    }
+
+    static ResponseEntity<Resource> serve(Path file, MediaType contentType, ContentDisposition disposition) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified) + "\"";
+        
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(IMMUTABLE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(new FileSystemResource(file));
+    }
+}
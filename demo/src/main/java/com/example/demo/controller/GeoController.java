@@ -0,0 +1,77 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.GeoService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Controller
+public class GeoController {
+    
+    private final GeoService geoService;
+
+    public GeoController(GeoService geoService) {
+        this.geoService = geoService;
+    }
+
+    // e.g. /api/assets/nearby?lat=10.7769&lon=106.7009&radius=200
+    @GetMapping("/api/assets/nearby")
+    public ResponseEntity<Map<String, Object>> nearby(@RequestParam double lat,
+                                                      @RequestParam double lon,
+                                                      @RequestParam(defaultValue = "200") double radius,
+                                                      @RequestParam(required = false) Integer limit) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("assets", geoService.findNearby(lat, lon, radius, limit));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    // e.g. /api/assets/within?minLat=10.76&minLon=106.69&maxLat=10.79&maxLon=106.71
+    @GetMapping("/api/assets/within")
+    public ResponseEntity<Map<String, Object>> within(@RequestParam double minLat,
+                                                      @RequestParam double minLon,
+                                                      @RequestParam double maxLat,
+                                                      @RequestParam double maxLon,
+                                                      @RequestParam(required = false) Integer limit) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("assets", geoService.findWithin(minLat, minLon, maxLat, maxLon, limit));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    // Audits recorded further than threshold meters from where their asset is registered
+    @GetMapping("/api/audits/misplaced")
+    public ResponseEntity<Map<String, Object>> misplaced(@RequestParam(defaultValue = "200") double threshold,
+                                                         @RequestParam(required = false) Integer limit) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("audits", geoService.findMisplacedAudits(threshold, limit));
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            return error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+    }
+    
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
@@ -2,8 +2,11 @@ package com.example.demo.controller;
 
 import com.example.demo.entity.Image;
 import com.example.demo.service.ImageService;
+import com.example.demo.service.RenditionService.Rendition;
+import com.example.demo.service.RenditionService.RenditionFile;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -13,6 +16,11 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
@@ -54,6 +62,23 @@ public class ImageController {
         return "upload";
     }
     
+    // Raw image body upload, streamed to disk in one pass without multipart temp files
+    @PostMapping(value = "/api/images", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> uploadRawImage(InputStream imageBody,
+                                            @RequestParam(value = "fileName", required = false) String fileName,
+                                            @RequestParam(value = "description", required = false) String description) {
+        try {
+            Image uploadedImage = imageService.uploadImage(imageBody, fileName, description);
+            return ResponseEntity.created(URI.create("/images/info/" + uploadedImage.getId())).body(uploadedImage);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IOException e) {
+            log.error("Error storing uploaded image", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to upload file: " + e.getMessage());
+        }
+    }
+    
     @GetMapping("/images")
     public ResponseEntity<List<Image>> getAllImages() {
         List<Image> images = imageService.getAllImages();
@@ -61,47 +86,31 @@ public class ImageController {
     }
     
     @GetMapping("/images/{id}")
-    public ResponseEntity<byte[]> getImage(@PathVariable Long id) {
-        try {
-            Optional<Image> imageOpt = imageService.getImageById(id);
-            if (imageOpt.isPresent()) {
-                Image image = imageOpt.get();
-                byte[] imageBytes = imageService.getImageBytes(id);
-                
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.parseMediaType(image.getContentType()));
-                headers.setContentLength(imageBytes.length);
-                headers.set("Content-Disposition", "inline; filename=\"" + image.getOriginalFileName() + "\"");
-                
-                return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
-        } catch (IOException e) {
-//            log.error("Error reading image file", e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public ResponseEntity<Resource> getImage(@PathVariable Long id) {
+        return serveImage(id, ContentDisposition.inline(), false);
     }
     
     @GetMapping("/images/{id}/download")
-    public ResponseEntity<byte[]> downloadImage(@PathVariable Long id) {
+    public ResponseEntity<Resource> downloadImage(@PathVariable Long id) {
+        return serveImage(id, ContentDisposition.attachment(), true);
+    }
+    
+    @GetMapping("/images/{id}/renditions/{rendition}")
+    public ResponseEntity<Resource> getImageRendition(@PathVariable Long id, @PathVariable String rendition) {
+        Optional<Rendition> renditionOpt = Rendition.fromName(rendition);
+        Optional<Image> imageOpt = imageService.getImageById(id);
+        if (renditionOpt.isEmpty() || imageOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
         try {
-            Optional<Image> imageOpt = imageService.getImageById(id);
-            if (imageOpt.isPresent()) {
-                Image image = imageOpt.get();
-                byte[] imageBytes = imageService.getImageBytes(id);
-                
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-                headers.setContentLength(imageBytes.length);
-                headers.set("Content-Disposition", "attachment; filename=\"" + image.getOriginalFileName() + "\"");
-                
-                return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
-            } else {
-                return ResponseEntity.notFound().build();
-            }
+            RenditionFile file = imageService.getImageRendition(imageOpt.get(), renditionOpt.get());
+            return FileResponses.serve(file.path(), MediaType.parseMediaType(file.contentType()),
+                    ContentDisposition.inline().build());
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
         } catch (IOException e) {
-//            log.error("Error downloading image file", e);
+            log.error("Error generating image rendition", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
@@ -130,4 +139,26 @@ public class ImageController {
         return imageOpt.map(image -> ResponseEntity.ok(image))
                       .orElse(ResponseEntity.notFound().build());
     }
+    
+    private ResponseEntity<Resource> serveImage(Long id, ContentDisposition.Builder disposition, boolean download) {
+        Optional<Image> imageOpt = imageService.getImageById(id);
+        if (imageOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        Image image = imageOpt.get();
+        try {
+            Path imageFile = imageService.getImageFile(image);
+            MediaType contentType = download
+                    ? MediaType.APPLICATION_OCTET_STREAM
+                    : MediaType.parseMediaType(image.getContentType());
+            return FileResponses.serve(imageFile, contentType,
+                    disposition.filename(image.getOriginalFileName(), StandardCharsets.UTF_8).build());
+        } catch (NoSuchFileException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Error reading image file", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
@@ -0,0 +1,67 @@
+package com.example.demo.controller;
+
+import com.example.demo.service.EntityCacheService;
+import com.example.demo.service.GeoService;
+import com.example.demo.service.VisionAIService;
+import com.example.demo.service.VisionAnalysisCache;
+import com.example.demo.service.VisionApiClient;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.util.Map;
+
+@Controller
+public class MetricsController {
+    
+    private final VisionAnalysisCache visionAnalysisCache;
+    private final EntityCacheService entityCacheService;
+    private final GeoService geoService;
+    private final VisionApiClient visionApiClient;
+    private final VisionAIService visionAIService;
+    private final StreamingCaptureServlet streamingCaptureServlet;
+
+    public MetricsController(VisionAnalysisCache visionAnalysisCache,
+                             EntityCacheService entityCacheService,
+                             GeoService geoService,
+                             VisionApiClient visionApiClient,
+                             VisionAIService visionAIService,
+                             StreamingCaptureServlet streamingCaptureServlet) {
+        this.visionAnalysisCache = visionAnalysisCache;
+        this.entityCacheService = entityCacheService;
+        this.geoService = geoService;
+        this.visionApiClient = visionApiClient;
+        this.visionAIService = visionAIService;
+        this.streamingCaptureServlet = streamingCaptureServlet;
+    }
+
+    @GetMapping("/api/metrics/vision-cache")
+    public ResponseEntity<Map<String, Object>> visionCacheStats() {
+        return ResponseEntity.ok(visionAnalysisCache.getStats());
+    }
+
+    @GetMapping("/api/metrics/vision-client")
+    public ResponseEntity<Map<String, Object>> visionClientStats() {
+        return ResponseEntity.ok(visionApiClient.getStats());
+    }
+
+    @GetMapping("/api/metrics/vision-engine")
+    public ResponseEntity<Map<String, Object>> visionEngineStats() {
+        return ResponseEntity.ok(visionAIService.getEngineStats());
+    }
+
+    @GetMapping("/api/metrics/capture-uploads")
+    public ResponseEntity<Map<String, Object>> captureUploadStats() {
+        return ResponseEntity.ok(streamingCaptureServlet.getStats());
+    }
+
+    @GetMapping("/api/metrics/entity-cache")
+    public ResponseEntity<Map<String, Object>> entityCacheStats() {
+        return ResponseEntity.ok(entityCacheService.getStats());
+    }
+
+    @GetMapping("/api/metrics/geo-index")
+    public ResponseEntity<Map<String, Object>> geoIndexStats() {
+        return ResponseEntity.ok(geoService.getStats());
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.SearchHit;
+import com.example.demo.service.SearchService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Controller
+public class SearchController {
+    
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    // e.g. /api/search?q=dell latitde&types=asset,audit&limit=20
+    @GetMapping("/api/search")
+    public ResponseEntity<?> search(@RequestParam String q,
+                                    @RequestParam(required = false) List<String> types,
+                                    @RequestParam(required = false) Integer limit) {
+        Set<String> typeFilter = new HashSet<>();
+        if (types != null) {
+            for (String type : types) {
+                String normalized = type.trim().toLowerCase();
+                if (!SearchService.TYPES.contains(normalized)) {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", false);
+                    response.put("message", "Unknown type: " + type + ", expected one of " + SearchService.TYPES);
+                    return ResponseEntity.badRequest().body(response);
+                }
+                typeFilter.add(normalized);
+            }
+        }
+        
+        List<SearchHit> hits = searchService.search(q, typeFilter, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("query", q);
+        // False while the index is still loading after a restart, so results may be incomplete
+        response.put("complete", searchService.isReady());
+        response.put("hits", hits);
+        return ResponseEntity.ok(response);
+    }
+}
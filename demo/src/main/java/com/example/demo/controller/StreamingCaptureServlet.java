@@ -0,0 +1,314 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.CaptureJob;
+import com.example.demo.service.CaptureJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Raw image capture upload read with non-blocking servlet I/O. The request thread returns as
+ * soon as the upload starts; the container calls back only when bytes have arrived, so a slow
+ * mobile upload holds a socket and a staging file rather than a thread. Once the body is in,
+ * the capture is handed to {@link CaptureJobService} and answered like {@code POST /api/captures}.
+ */
+@Slf4j
+public class StreamingCaptureServlet extends HttpServlet {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Longest a timeout waits for an upload already being submitted to answer
+    private static final long SUBMIT_WAIT_SECONDS = 30;
+
+    private final CaptureJobService captureJobService;
+    private final ObjectMapper objectMapper;
+    private final Path stagingDir;
+    private final long maxFileSize;
+    private final long uploadTimeoutMillis;
+
+    private final AtomicLong active = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public StreamingCaptureServlet(CaptureJobService captureJobService,
+                                   ObjectMapper objectMapper,
+                                   Path stagingDir,
+                                   long maxFileSize,
+                                   Duration uploadTimeout) {
+        this.captureJobService = captureJobService;
+        this.objectMapper = objectMapper;
+        this.stagingDir = stagingDir;
+        this.maxFileSize = maxFileSize;
+        this.uploadTimeoutMillis = uploadTimeout.toMillis();
+    }
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType == null || !(contentType.startsWith("image/")
+                || contentType.startsWith(MediaType.APPLICATION_OCTET_STREAM_VALUE))) {
+            writeError(response, HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Body must be an image");
+            return;
+        }
+        String auditorName = request.getParameter("auditorName");
+        if (auditorName == null || auditorName.isBlank()) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "auditorName is required");
+            return;
+        }
+        if (request.getContentLengthLong() > maxFileSize) {
+            writeError(response, HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "File exceeds maximum size of " + maxFileSize + " bytes");
+            return;
+        }
+        Double latitude;
+        Double longitude;
+        try {
+            latitude = doubleParameter(request, "latitude");
+            longitude = doubleParameter(request, "longitude");
+        } catch (NumberFormatException e) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST, "latitude and longitude must be numbers");
+            return;
+        }
+
+        Files.createDirectories(stagingDir);
+        Path staged = Files.createTempFile(stagingDir, "capture", ".tmp");
+        AsyncContext async = request.startAsync();
+        async.setTimeout(uploadTimeoutMillis);
+        Upload upload = new Upload(async, request.getInputStream(), staged,
+                FileChannel.open(staged, StandardOpenOption.WRITE), auditorName, latitude, longitude);
+        active.incrementAndGet();
+        async.addListener(upload);
+        upload.input.setReadListener(upload);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("active", active.get());
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("failed", failed.get());
+        return stats;
+    }
+
+    private static Double doubleParameter(HttpServletRequest request, String name) {
+        String value = request.getParameter(name);
+        return value == null || value.isBlank() ? null : Double.valueOf(value);
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", false);
+        body.put("message", message);
+        writeJson(response, status, body);
+    }
+
+    private void writeJson(HttpServletResponse response, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(bytes.length);
+        response.getOutputStream().write(bytes);
+    }
+
+    // One upload in progress. The container never runs two of its callbacks at once
+    private final class Upload implements ReadListener, AsyncListener {
+
+        private final AsyncContext async;
+        private final ServletInputStream input;
+        private final Path staged;
+        private final FileChannel channel;
+        private final String auditorName;
+        private final Double latitude;
+        private final Double longitude;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        // Set by whichever of submit, error or timeout answers the request first
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final AtomicBoolean cleanedUp = new AtomicBoolean();
+        // Released once whichever path answered the request has completed it
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private long size;
+
+        Upload(AsyncContext async, ServletInputStream input, Path staged, FileChannel channel,
+               String auditorName, Double latitude, Double longitude) {
+            this.async = async;
+            this.input = input;
+            this.staged = staged;
+            this.channel = channel;
+            this.auditorName = auditorName;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+
+        @Override
+        public void onDataAvailable() throws IOException {
+            // Drain what has arrived; once isReady() is false the container calls back when there is more
+            while (input.isReady()) {
+                int read = input.read(buffer);
+                if (read == -1) {
+                    return;
+                }
+                size += read;
+                if (size > maxFileSize) {
+                    finishWithError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                            "File exceeds maximum size of " + maxFileSize + " bytes");
+                    return;
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            }
+        }
+
+        @Override
+        public void onAllDataRead() throws IOException {
+            channel.close();
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            // Storing the image and the pending job is short blocking work, so it runs on a container thread
+            async.start(this::submit);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.warn("Streaming capture upload failed after {} bytes: {}", size, t.toString());
+            if (finished.compareAndSet(false, true)) {
+                failed.incrementAndGet();
+                cleanUp();
+                complete();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            if (finished.get()) {
+                // The body is in and submit is still answering on a container thread. It completes the
+                // request itself, so wait for it rather than let the container's timeout answer race it
+                awaitCompleted();
+                return;
+            }
+            finishWithError(HttpServletResponse.SC_REQUEST_TIMEOUT, "Upload did not complete in time");
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            onError(event.getThrowable());
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            cleanUp();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void submit() {
+            HttpServletResponse response = (HttpServletResponse) async.getResponse();
+            try {
+                try (InputStream stagedInput = Files.newInputStream(staged)) {
+                    CaptureJob job = captureJobService.submit(stagedInput, auditorName, latitude, longitude);
+                    response.setHeader(HttpHeaders.LOCATION, "/api/captures/" + job.getId());
+                    writeJson(response, HttpServletResponse.SC_ACCEPTED, job);
+                    accepted.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    // Backpressure: the client should retry once the queue drains
+                    rejected.incrementAndGet();
+                    response.setHeader(HttpHeaders.RETRY_AFTER, "5");
+                    writeError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    failed.incrementAndGet();
+                    writeError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                            "Failed to store image: " + e.getMessage());
+                } catch (RuntimeException e) {
+                    log.error("Streaming capture submit failed", e);
+                    failed.incrementAndGet();
+                    writeError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                            "Failed to submit capture: " + e.getMessage());
+                }
+            } catch (IOException e) {
+                log.warn("Could not answer streaming capture upload: {}", e.toString());
+            } finally {
+                complete();
+            }
+        }
+        
+        private void complete() {
+            try {
+                async.complete();
+            } finally {
+                completed.countDown();
+            }
+        }
+        
+        private void awaitCompleted() {
+            try {
+                if (!completed.await(SUBMIT_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warn("Streaming capture submit still running after timeout; leaving the request to the container");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void finishWithError(int status, String message) {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            failed.incrementAndGet();
+            try {
+                HttpServletResponse response = (HttpServletResponse) async.getResponse();
+                // The rest of the body is not read, so the connection cannot be reused
+                response.setHeader(HttpHeaders.CONNECTION, "close");
+                writeError(response, status, message);
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Could not answer streaming capture upload: {}", e.toString());
+            } finally {
+                complete();
+            }
+        }
+
+        private void cleanUp() {
+            if (!cleanedUp.compareAndSet(false, true)) {
+                return;
+            }
+            active.decrementAndGet();
+            try {
+                channel.close();
+                Files.deleteIfExists(staged);
+            } catch (IOException e) {
+                log.warn("Could not delete staged upload {}", staged, e);
+            }
+        }
+    }
+}
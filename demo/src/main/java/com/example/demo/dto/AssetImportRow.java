@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+/**
+ * One inventory record in a bulk import, as read from a CSV row or an NDJSON line.
+ * Only {@code deviceNumber} is required; it is the key rows are upserted on.
+ */
+public record AssetImportRow(String deviceNumber,
+                             String deviceName,
+                             String department,
+                             String location,
+                             Double latitude,
+                             Double longitude,
+                             String barcode,
+                             String serialNumber,
+                             String model,
+                             String manufacturer,
+                             String status) {
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dto;
+
+// Coordinates of one asset, for loading the spatial index
+public interface AssetPosition {
+
+    Long getId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
@@ -0,0 +1,37 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// List/summary view of an Asset without the aiExtractedInfo TEXT column
+public interface AssetSummary {
+
+    Long getId();
+
+    String getDeviceNumber();
+
+    String getDeviceName();
+
+    String getDepartment();
+
+    String getLocation();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    String getBarcode();
+
+    String getSerialNumber();
+
+    String getModel();
+
+    String getManufacturer();
+
+    String getStatus();
+
+    String getImagePath();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getLastAudited();
+}
@@ -0,0 +1,35 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+// List/summary view of an Audit without the notes and aiAnalysisResult CLOB columns
+public interface AuditSummary {
+
+    Long getId();
+
+    Long getAssetId();
+
+    String getAuditType();
+
+    String getAuditorName();
+
+    String getAuditLocation();
+
+    Double getAuditLatitude();
+
+    Double getAuditLongitude();
+
+    String getCondition();
+
+    String getStatus();
+
+    String getEvidenceImagePath();
+
+    String getDeviceNumber();
+
+    String getDepartment();
+
+    LocalDateTime getAuditDate();
+
+    LocalDateTime getCompletedAt();
+}
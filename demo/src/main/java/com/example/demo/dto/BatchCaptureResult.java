@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import com.example.demo.entity.Asset;
+
+/**
+ * Outcome of one image in a batch capture, by its position in the upload: the asset it was
+ * recorded against, or the error that stopped it. Images before a failed one stay recorded.
+ */
+public record BatchCaptureResult(int index,
+                                 String fileName,
+                                 Long assetId,
+                                 String deviceNumber,
+                                 String error) {
+
+    public static BatchCaptureResult captured(int index, String fileName, Asset asset) {
+        return new BatchCaptureResult(index, fileName, asset.getId(), asset.getDeviceNumber(), null);
+    }
+
+    public static BatchCaptureResult failed(int index, String fileName, String error) {
+        return new BatchCaptureResult(index, fileName, null, null, error);
+    }
+
+    public boolean succeeded() {
+        return error == null;
+    }
+}
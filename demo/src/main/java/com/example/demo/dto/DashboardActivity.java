@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry in the dashboard's recent activity feed. {@code event} is captured or completed,
+ * and {@code status} is the audit's status once the event happened.
+ */
+public record DashboardActivity(String event,
+                                Long auditId,
+                                Long assetId,
+                                String deviceNumber,
+                                String department,
+                                String auditorName,
+                                String status,
+                                LocalDateTime at) {
+}
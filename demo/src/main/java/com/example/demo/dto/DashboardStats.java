@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record DashboardStats(long totalAssets,
+                             long totalAudits,
+                             long openAudits,
+                             long completedAudits,
+                             long issuesFound,
+                             Map<String, Long> assetsByStatus,
+                             Map<String, Long> assetsByDepartment,
+                             Map<String, Long> auditsByStatus,
+                             Map<String, Long> auditsByAuditor,
+                             List<DashboardActivity> recentActivity) {
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * What to export: {@code dataset} is assets or audits, {@code format} is csv, ndjson or
+ * columnar. Filters are optional; the date range applies to createdAt for assets and
+ * auditDate for audits, from inclusive and to exclusive.
+ */
+public record ExportQuery(String dataset,
+                          String format,
+                          boolean gzip,
+                          String department,
+                          String status,
+                          LocalDateTime from,
+                          LocalDateTime to) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+// One row of a GROUP BY count: the grouped column's value and how many rows share it
+public interface GroupCount {
+
+    String getLabel();
+
+    Long getTotal();
+}
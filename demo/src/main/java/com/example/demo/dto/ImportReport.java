@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Rows in a chunk that failed to commit are counted as failed;
+ * {@code errors} holds the first problems found, up to the configured limit.
+ */
+public record ImportReport(String format,
+                           long rowsRead,
+                           long inserted,
+                           long updated,
+                           long failed,
+                           int chunksCommitted,
+                           long durationMillis,
+                           List<ImportError> errors,
+                           boolean errorsTruncated) {
+
+    public record ImportError(long line, String deviceNumber, String message) {
+    }
+}
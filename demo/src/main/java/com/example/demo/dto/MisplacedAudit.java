@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+// An audit recorded further from its asset's registered location than the allowed distance
+public record MisplacedAudit(AuditSummary audit,
+                             double assetLatitude,
+                             double assetLongitude,
+                             double distanceMeters) {
+}
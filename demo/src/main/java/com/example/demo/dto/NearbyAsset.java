@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+/**
+ * An asset found by a spatial query. {@code distanceMeters} is measured from the query point,
+ * or from the center of the box for bounding-box queries.
+ */
+public record NearbyAsset(AssetSummary asset, double distanceMeters) {
+}
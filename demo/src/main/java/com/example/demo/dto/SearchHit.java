@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+/**
+ * One ranked result from /api/search. {@code type} is asset, audit or image and
+ * {@code url} points at the record's existing page or API resource.
+ */
+public record SearchHit(String type, Long id, String title, String subtitle, double score, String url) {
+}
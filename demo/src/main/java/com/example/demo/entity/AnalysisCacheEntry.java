@@ -0,0 +1,55 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "vision_analysis_cache")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalysisCacheEntry {
+    
+    // SHA-256 of the image bytes, hex encoded
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+    
+    @Lob
+    @JdbcTypeCode(SqlTypes.CLOB)
+    @Column(nullable = false)
+    private String analysis;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getAnalysis() {
+        return analysis;
+    }
+
+    public void setAnalysis(String analysis) {
+        this.analysis = analysis;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
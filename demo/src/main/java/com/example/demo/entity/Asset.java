@@ -1,24 +1,41 @@
 package com.example.demo.entity;
 
+import com.example.demo.service.GeoIndexListener;
+import com.example.demo.service.SearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "assets")
+@Table(name = "assets", indexes = {
+        @Index(name = "idx_assets_department_status", columnList = "department, status"),
+        @Index(name = "idx_assets_status", columnList = "status"),
+        @Index(name = "idx_assets_barcode", columnList = "barcode"),
+        @Index(name = "idx_assets_serial_number", columnList = "serial_number"),
+        @Index(name = "idx_assets_created_at_id", columnList = "created_at DESC, id DESC"),
+        @Index(name = "idx_assets_latitude_longitude", columnList = "latitude, longitude")
+})
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, SearchIndexListener.class, GeoIndexListener.class})
 public class Asset {
     
+    // Sequence ids let Hibernate batch inserts; IDENTITY needs a round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assets_seq")
+    @SequenceGenerator(name = "assets_seq", sequenceName = "assets_seq", allocationSize = 50)
     private Long id;
 
     public Long getId() {
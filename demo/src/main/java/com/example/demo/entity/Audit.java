@@ -1,10 +1,14 @@
 package com.example.demo.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.example.demo.service.SearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
@@ -13,11 +17,21 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audits")
+@Table(name = "audits", indexes = {
+        @Index(name = "idx_audits_asset_date", columnList = "asset_id, audit_date"),
+        @Index(name = "idx_audits_auditor_name_date", columnList = "auditor_name, audit_date"),
+        @Index(name = "idx_audits_status", columnList = "status"),
+        @Index(name = "idx_audits_audit_type", columnList = "audit_type"),
+        @Index(name = "idx_audits_date_id", columnList = "audit_date DESC, id DESC"),
+        @Index(name = "idx_audits_completed_at_id", columnList = "completed_at DESC, id DESC")
+})
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, SearchIndexListener.class})
 public class Audit {
     
     @Id
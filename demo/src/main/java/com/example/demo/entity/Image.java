@@ -1,20 +1,29 @@
 package com.example.demo.entity;
 
+import com.example.demo.service.SearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "images")
+@Table(name = "images", indexes = {
+        @Index(name = "idx_images_stored_file_name", columnList = "stored_file_name"),
+        @Index(name = "idx_images_content_type", columnList = "content_type"),
+        @Index(name = "idx_images_uploaded_at", columnList = "uploaded_at DESC")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@EntityListeners(AuditingEntityListener.class)
+@EntityListeners({AuditingEntityListener.class, SearchIndexListener.class})
 public class Image {
     
     @Id
@@ -106,4 +115,16 @@ public class Image {
     
     @Column
     private String description;
+    
+    // SHA-256 of the stored bytes, computed while the upload is streamed to disk
+    @Column(length = 64)
+    private String contentHash;
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
 }
@@ -0,0 +1,87 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One stored file per distinct content; rows that point at it hold a reference
+@Entity
+@Table(name = "image_blobs", indexes = {
+        @Index(name = "idx_image_blobs_file_path", columnList = "file_path")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageBlob {
+    
+    // SHA-256 of the file bytes, hex encoded
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+    
+    @Column(nullable = false)
+    private String filePath;
+    
+    @Column(nullable = false)
+    private Long fileSize;
+    
+    @Column(nullable = false)
+    private String contentType;
+    
+    @Column(nullable = false)
+    private Integer refCount;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Integer refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
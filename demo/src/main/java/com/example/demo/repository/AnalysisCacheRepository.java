@@ -0,0 +1,21 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.AnalysisCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AnalysisCacheRepository extends JpaRepository<AnalysisCacheEntry, String> {
+    
+    // One bulk delete rather than loading each expired row
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AnalysisCacheEntry e WHERE e.createdAt < :cutoff")
+    int deleteByCreatedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,19 +1,43 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.AssetPosition;
+import com.example.demo.dto.AssetSummary;
+import com.example.demo.dto.GroupCount;
 import com.example.demo.entity.Asset;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AssetRepository extends JpaRepository<Asset, Long> {
     
     Optional<Asset> findByDeviceNumber(String deviceNumber);
     
+    // Row lock for re-captures: concurrent captures of one tag must see each other's image swap
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Asset a WHERE a.deviceNumber = :deviceNumber")
+    Optional<Asset> findForUpdateByDeviceNumber(@Param("deviceNumber") String deviceNumber);
+    
+    List<Asset> findByDeviceNumberIn(Collection<String> deviceNumbers);
+    
+    // Query cache: results stay valid until the assets table is next written
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Asset> findByDepartment(String department);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Asset> findByStatus(String status);
     
     List<Asset> findByBarcode(String barcode);
@@ -21,4 +45,77 @@ public interface AssetRepository extends JpaRepository<Asset, Long> {
     List<Asset> findBySerialNumber(String serialNumber);
     
     List<Asset> findAllByOrderByCreatedAtDesc();
+    
+    String SUMMARY_SELECT = "SELECT a.id AS id, a.deviceNumber AS deviceNumber, a.deviceName AS deviceName, " +
+            "a.department AS department, a.location AS location, a.latitude AS latitude, " +
+            "a.longitude AS longitude, a.barcode AS barcode, a.serialNumber AS serialNumber, " +
+            "a.model AS model, a.manufacturer AS manufacturer, a.status AS status, " +
+            "a.imagePath AS imagePath, a.createdAt AS createdAt, a.lastAudited AS lastAudited " +
+            "FROM Asset a ";
+    
+    @Query(SUMMARY_SELECT + "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AssetSummary> findAllSummaries();
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(SUMMARY_SELECT + "WHERE a.department = :department")
+    List<AssetSummary> findSummariesByDepartment(@Param("department") String department);
+    
+    // Keyset pagination: newest first, id breaks ties between equal timestamps
+    @Query(SUMMARY_SELECT + "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AssetSummary> findFirstPage(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT +
+           "WHERE a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.id < :id) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<AssetSummary> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "ORDER BY a.createdAt DESC, a.id DESC")
+    Stream<AssetSummary> streamAllSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE a.id IN :ids")
+    List<AssetSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Serves bounding-box queries while the spatial index is still loading
+    @Query(SUMMARY_SELECT +
+           "WHERE a.latitude BETWEEN :minLatitude AND :maxLatitude " +
+           "AND a.longitude BETWEEN :minLongitude AND :maxLongitude")
+    List<AssetSummary> findSummariesWithin(@Param("minLatitude") double minLatitude,
+                                           @Param("minLongitude") double minLongitude,
+                                           @Param("maxLatitude") double maxLatitude,
+                                           @Param("maxLongitude") double maxLongitude,
+                                           Pageable pageable);
+    
+    // Every asset in the box, for radius queries that must rank by distance before limiting
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT +
+           "WHERE a.latitude BETWEEN :minLatitude AND :maxLatitude " +
+           "AND a.longitude BETWEEN :minLongitude AND :maxLongitude")
+    Stream<AssetSummary> streamSummariesWithin(@Param("minLatitude") double minLatitude,
+                                               @Param("minLongitude") double minLongitude,
+                                               @Param("maxLatitude") double maxLatitude,
+                                               @Param("maxLongitude") double maxLongitude);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT a.id AS id, a.latitude AS latitude, a.longitude AS longitude FROM Asset a " +
+           "WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL")
+    Stream<AssetPosition> streamPositions();
+    
+    // Dashboard counters are rebuilt from these on startup
+    @Query("SELECT a.status AS label, COUNT(a) AS total FROM Asset a GROUP BY a.status")
+    List<GroupCount> countGroupedByStatus();
+    
+    @Query("SELECT a.department AS label, COUNT(a) AS total FROM Asset a GROUP BY a.department")
+    List<GroupCount> countGroupedByDepartment();
+    
+    // Full entities for rebuilding the search index; callers detach rows as they go
+    // and the scan bypasses the second-level cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT a FROM Asset a")
+    Stream<Asset> streamAll();
 }
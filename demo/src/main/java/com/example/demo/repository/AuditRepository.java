@@ -1,22 +1,94 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.AuditSummary;
+import com.example.demo.dto.GroupCount;
 import com.example.demo.entity.Audit;
 import com.example.demo.entity.Asset;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditRepository extends JpaRepository<Audit, Long> {
     
     List<Audit> findByAsset(Asset asset);
     
+    @Query("SELECT a FROM Audit a JOIN FETCH a.asset WHERE a.id = :id")
+    Optional<Audit> findWithAssetById(@Param("id") Long id);
+    
+    // Entity lists load the asset in the same query instead of one lazy select per row
+    @EntityGraph(attributePaths = "asset")
     List<Audit> findByAuditorName(String auditorName);
     
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Audit> findByStatus(String status);
     
     List<Audit> findByAuditType(String auditType);
     
+    @EntityGraph(attributePaths = "asset")
     List<Audit> findAllByOrderByAuditDateDesc();
+    
+    String SUMMARY_SELECT = "SELECT a.id AS id, a.asset.id AS assetId, a.auditType AS auditType, " +
+            "a.auditorName AS auditorName, a.auditLocation AS auditLocation, " +
+            "a.auditLatitude AS auditLatitude, a.auditLongitude AS auditLongitude, " +
+            "a.condition AS condition, a.status AS status, a.evidenceImagePath AS evidenceImagePath, " +
+            "a.deviceNumber AS deviceNumber, a.department AS department, " +
+            "a.auditDate AS auditDate, a.completedAt AS completedAt " +
+            "FROM Audit a ";
+    
+    @Query(SUMMARY_SELECT + "ORDER BY a.auditDate DESC, a.id DESC")
+    List<AuditSummary> findAllSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE a.auditorName = :auditorName")
+    List<AuditSummary> findSummariesByAuditorName(@Param("auditorName") String auditorName);
+    
+    // Keyset pagination: newest first, id breaks ties between equal timestamps
+    @Query(SUMMARY_SELECT + "ORDER BY a.auditDate DESC, a.id DESC")
+    List<AuditSummary> findFirstPage(Pageable pageable);
+    
+    @Query(SUMMARY_SELECT +
+           "WHERE a.auditDate <= :auditDate AND (a.auditDate < :auditDate OR a.id < :id) " +
+           "ORDER BY a.auditDate DESC, a.id DESC")
+    List<AuditSummary> findPageAfter(@Param("auditDate") LocalDateTime auditDate,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SUMMARY_SELECT + "ORDER BY a.auditDate DESC, a.id DESC")
+    Stream<AuditSummary> streamAllSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE a.completedAt IS NOT NULL ORDER BY a.completedAt DESC, a.id DESC")
+    List<AuditSummary> findRecentlyCompleted(Pageable pageable);
+    
+    // Dashboard counters are rebuilt from these on startup
+    @Query("SELECT a.status AS label, COUNT(a) AS total FROM Audit a GROUP BY a.status")
+    List<GroupCount> countGroupedByStatus();
+    
+    @Query("SELECT a.auditorName AS label, COUNT(a) AS total FROM Audit a GROUP BY a.auditorName")
+    List<GroupCount> countGroupedByAuditorName();
+    
+    long countByCompletedAtIsNull();
+    
+    long countByConditionIn(Collection<String> conditions);
+    
+    // Full entities for rebuilding the search index; callers detach rows as they go
+    // and the scan bypasses the second-level cache
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT a FROM Audit a")
+    Stream<Audit> streamAll();
 }
@@ -0,0 +1,42 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.CaptureJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CaptureJobRepository extends JpaRepository<CaptureJob, Long> {
+    
+    List<CaptureJob> findByStatusInOrderByCreatedAtAsc(Collection<String> statuses);
+    
+    // Runs inside the capture's transaction, so a job is only ever completed together with its audit
+    @Transactional
+    @Modifying
+    @Query("UPDATE CaptureJob j SET j.status = :status, j.assetId = :assetId, j.auditId = :auditId, " +
+            "j.deviceNumber = :deviceNumber, j.completedAt = :completedAt WHERE j.id = :id")
+    int markCompleted(@Param("id") Long id,
+                      @Param("status") String status,
+                      @Param("assetId") Long assetId,
+                      @Param("auditId") Long auditId,
+                      @Param("deviceNumber") String deviceNumber,
+                      @Param("completedAt") LocalDateTime completedAt);
+    
+    // Leaves a job that already completed alone
+    @Transactional
+    @Modifying
+    @Query("UPDATE CaptureJob j SET j.status = :status, j.errorMessage = :errorMessage, j.completedAt = :completedAt " +
+            "WHERE j.id = :id AND j.status <> :completedStatus")
+    int markFailed(@Param("id") Long id,
+                   @Param("status") String status,
+                   @Param("completedStatus") String completedStatus,
+                   @Param("errorMessage") String errorMessage,
+                   @Param("completedAt") LocalDateTime completedAt);
+}
@@ -0,0 +1,24 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.ImageBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+    
+    Optional<ImageBlob> findByFilePath(String filePath);
+    
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :contentHash")
+    int incrementRefCount(@Param("contentHash") String contentHash);
+    
+    @Modifying
+    @Query("UPDATE ImageBlob b SET b.refCount = b.refCount - 1 WHERE b.contentHash = :contentHash")
+    int decrementRefCount(@Param("contentHash") String contentHash);
+}
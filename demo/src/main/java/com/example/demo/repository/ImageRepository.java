@@ -1,20 +1,32 @@
 package com.example.demo.repository;
 
 import com.example.demo.entity.Image;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ImageRepository extends JpaRepository<Image, Long> {
     
-    Optional<Image> findByStoredFileName(String storedFileName);
+    Optional<Image> findFirstByStoredFileName(String storedFileName);
     
     List<Image> findByOriginalFileNameContainingIgnoreCase(String fileName);
     
     List<Image> findByContentType(String contentType);
     
     List<Image> findAllByOrderByUploadedAtDesc();
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT i FROM Image i")
+    Stream<Image> streamAll();
 }
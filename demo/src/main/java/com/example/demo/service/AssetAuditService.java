@@ -1,46 +1,85 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.AssetSummary;
+import com.example.demo.dto.AuditSummary;
+import com.example.demo.dto.BatchCaptureResult;
+import com.example.demo.dto.CursorPage;
+import com.example.demo.dto.PageCursor;
 import com.example.demo.entity.Asset;
 import com.example.demo.entity.Audit;
 import com.example.demo.repository.AssetRepository;
 import com.example.demo.repository.AuditRepository;
+import com.example.demo.service.RenditionService.Rendition;
+import com.example.demo.service.RenditionService.RenditionFile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class AssetAuditService {
     
+    private static final int MAX_CAPTURE_ATTEMPTS = 3;
+    
     private final AssetRepository assetRepository;
     private final AuditRepository auditRepository;
     private final VisionAIService visionAIService;
     private final ImageService imageService;
+    private final RenditionService renditionService;
+    private final ImageStorage imageStorage;
+    private final DeviceNumberAllocator deviceNumberAllocator;
+    private final DashboardStatsService dashboardStatsService;
+    private final TransactionTemplate transactionTemplate;
     
     @Value("${file.upload-dir}")
     private String uploadDir;
+    
+    @Value("${app.pagination.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${app.pagination.max-size:500}")
+    private int maxPageSize;
 
     public AssetAuditService(AssetRepository assetRepository, 
                            AuditRepository auditRepository,
                            VisionAIService visionAIService,
-                           ImageService imageService) {
+                           ImageService imageService,
+                           RenditionService renditionService,
+                           ImageStorage imageStorage,
+                           DeviceNumberAllocator deviceNumberAllocator,
+                           DashboardStatsService dashboardStatsService,
+                           PlatformTransactionManager transactionManager) {
         this.assetRepository = assetRepository;
         this.auditRepository = auditRepository;
         this.visionAIService = visionAIService;
         this.imageService = imageService;
+        this.renditionService = renditionService;
+        this.imageStorage = imageStorage;
+        this.deviceNumberAllocator = deviceNumberAllocator;
+        this.dashboardStatsService = dashboardStatsService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Asset processAssetImage(MultipartFile imageFile, 
@@ -50,18 +89,114 @@ public class AssetAuditService {
         
         // Analyze image with Vision AI
         String aiAnalysis = visionAIService.analyzeAssetImage(imageFile);
-        Map<String, Object> analysisResult = visionAIService.parseAnalysisResult(aiAnalysis);
         
         // Save image as evidence
         String imagePath = saveAssetImage(imageFile);
         
-        // Create or update asset
-        Asset asset = createOrUpdateAsset(analysisResult, imagePath, latitude, longitude);
+        return recordCaptureOrDiscard(aiAnalysis, imagePath, auditorName, latitude, longitude).getAsset();
+    }
+    
+    /**
+     * Records each image on its own, so one that cannot be read, stored or recorded fails alone
+     * and the results, in upload order, say which images were captured.
+     */
+    public List<BatchCaptureResult> processAssetImages(List<MultipartFile> imageFiles,
+                                                       String auditorName,
+                                                       Double latitude,
+                                                       Double longitude) {
+        List<BatchCaptureResult> results = new ArrayList<>();
         
-        // Create initial audit record
-        createInitialAudit(asset, auditorName, aiAnalysis, imagePath, latitude, longitude);
+        // Work through the upload in windows so only one window of image bytes is on the heap at a time
+        int windowSize = visionAIService.getBatchWindowSize();
+        for (int start = 0; start < imageFiles.size(); start += windowSize) {
+            List<MultipartFile> window = imageFiles.subList(start, Math.min(start + windowSize, imageFiles.size()));
+            BatchCaptureResult[] windowResults = new BatchCaptureResult[window.size()];
+            
+            List<Integer> readable = new ArrayList<>();
+            List<byte[]> images = new ArrayList<>();
+            for (int i = 0; i < window.size(); i++) {
+                try {
+                    images.add(window.get(i).getBytes());
+                    readable.add(i);
+                } catch (IOException e) {
+                    windowResults[i] = batchFailure(start + i, window.get(i), "Failed to read image", e);
+                }
+            }
+            List<String> analyses = visionAIService.analyzeAssetImages(images);
+            
+            for (int j = 0; j < readable.size(); j++) {
+                int i = readable.get(j);
+                MultipartFile imageFile = window.get(i);
+                try {
+                    String imagePath = saveAssetImage(imageFile);
+                    Asset asset = recordCaptureOrDiscard(analyses.get(j), imagePath, auditorName, latitude, longitude).getAsset();
+                    windowResults[i] = BatchCaptureResult.captured(start + i, imageFile.getOriginalFilename(), asset);
+                } catch (IOException | RuntimeException e) {
+                    windowResults[i] = batchFailure(start + i, imageFile, "Failed to capture image", e);
+                }
+            }
+            results.addAll(List.of(windowResults));
+        }
         
-        return asset;
+        return results;
+    }
+    
+    private BatchCaptureResult batchFailure(int index, MultipartFile imageFile, String message, Exception e) {
+        log.warn("Batch capture image {} ({}): {}", index, imageFile.getOriginalFilename(), message, e);
+        return BatchCaptureResult.failed(index, imageFile.getOriginalFilename(), message + ": " + e.getMessage());
+    }
+    
+    public Audit recordCapture(String aiAnalysis,
+                               String imagePath,
+                               String auditorName,
+                               Double latitude,
+                               Double longitude) {
+        return recordCapture(aiAnalysis, imagePath, auditorName, latitude, longitude, audit -> { });
+    }
+    
+    /**
+     * Records a capture, then runs inTransaction with the new audit inside the same transaction,
+     * so whatever it writes commits or rolls back together with the capture.
+     */
+    public Audit recordCapture(String aiAnalysis,
+                               String imagePath,
+                               String auditorName,
+                               Double latitude,
+                               Double longitude,
+                               Consumer<Audit> inTransaction) {
+        Map<String, Object> analysisResult = visionAIService.parseAnalysisResult(aiAnalysis);
+        
+        // The Vision AI call has already happened; the transaction only spans the writes
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Asset asset = createOrUpdateAsset(analysisResult, imagePath, latitude, longitude);
+                    Audit audit = createInitialAudit(asset, auditorName, aiAnalysis, imagePath, latitude, longitude);
+                    inTransaction.accept(audit);
+                    return audit;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Lost a device_number race; the retry finds the other capture's asset or draws a new number
+                if (attempt >= MAX_CAPTURE_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Capture conflicted on device number, retrying: {}", e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+    
+    // Like the capture job path: a stored image that no audit took over gives up its reference
+    private Audit recordCaptureOrDiscard(String aiAnalysis,
+                                         String imagePath,
+                                         String auditorName,
+                                         Double latitude,
+                                         Double longitude) {
+        try {
+            return recordCapture(aiAnalysis, imagePath, auditorName, latitude, longitude);
+        } catch (RuntimeException e) {
+            discardAssetImage(imagePath);
+            throw e;
+        }
     }
     
     public Audit completeAudit(Long auditId, 
@@ -69,32 +204,81 @@ public class AssetAuditService {
                               String notes,
                               String status) {
         
-        Optional<Audit> auditOpt = auditRepository.findById(auditId);
-        if (auditOpt.isEmpty()) {
-            throw new IllegalArgumentException("Audit not found");
+        // One select for both rows, then dirty checking writes just the changed columns on commit
+        return transactionTemplate.execute(tx -> {
+            Audit audit = auditRepository.findWithAssetById(auditId)
+                    .orElseThrow(() -> new IllegalArgumentException("Audit not found"));
+            
+            String previousStatus = audit.getStatus();
+            String previousCondition = audit.getCondition();
+            boolean wasOpen = audit.getCompletedAt() == null;
+            String previousAssetStatus = audit.getAsset().getStatus();
+            
+            LocalDateTime now = LocalDateTime.now();
+            audit.setCondition(condition);
+            audit.setNotes(notes);
+            audit.setStatus(status);
+            audit.setCompletedAt(now);
+            
+            // Update asset status
+            Asset asset = audit.getAsset();
+            asset.setStatus(status);
+            asset.setLastAudited(now);
+            
+            dashboardStatsService.recordAuditCompleted(previousStatus, previousCondition, wasOpen, audit);
+            dashboardStatsService.recordAssetChanged(previousAssetStatus, asset.getDepartment(), asset);
+            return audit;
+        });
+    }
+    
+    public List<AssetSummary> getAllAssets() {
+        return assetRepository.findAllSummaries();
+    }
+    
+    public List<AuditSummary> getAllAudits() {
+        return auditRepository.findAllSummaries();
+    }
+    
+    public CursorPage<AssetSummary> getAssetPage(String cursor, Integer size) {
+        int limit = resolvePageSize(size);
+        // Fetch one extra row to find out whether another page follows
+        PageRequest request = PageRequest.of(0, limit + 1);
+        List<AssetSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = assetRepository.findFirstPage(request);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = assetRepository.findPageAfter(position.timestamp(), position.id(), request);
         }
-        
-        Audit audit = auditOpt.get();
-        audit.setCondition(condition);
-        audit.setNotes(notes);
-        audit.setStatus(status);
-        audit.setCompletedAt(LocalDateTime.now());
-        
-        // Update asset status
-        Asset asset = audit.getAsset();
-        asset.setStatus(status);
-        asset.setLastAudited(LocalDateTime.now());
-        assetRepository.save(asset);
-        
-        return auditRepository.save(audit);
+        return toCursorPage(rows, limit, asset -> new PageCursor(asset.getCreatedAt(), asset.getId()));
+    }
+    
+    public CursorPage<AuditSummary> getAuditPage(String cursor, Integer size) {
+        int limit = resolvePageSize(size);
+        PageRequest request = PageRequest.of(0, limit + 1);
+        List<AuditSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = auditRepository.findFirstPage(request);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            rows = auditRepository.findPageAfter(position.timestamp(), position.id(), request);
+        }
+        return toCursorPage(rows, limit, audit -> new PageCursor(audit.getAuditDate(), audit.getId()));
     }
     
-    public List<Asset> getAllAssets() {
-        return assetRepository.findAllByOrderByCreatedAtDesc();
+    // Projections are not managed entities, so the persistence context stays empty for any table size
+    @Transactional(readOnly = true)
+    public void streamAssets(Consumer<AssetSummary> action) {
+        try (Stream<AssetSummary> assets = assetRepository.streamAllSummaries()) {
+            assets.forEach(action);
+        }
     }
     
-    public List<Audit> getAllAudits() {
-        return auditRepository.findAllByOrderByAuditDateDesc();
+    @Transactional(readOnly = true)
+    public void streamAudits(Consumer<AuditSummary> action) {
+        try (Stream<AuditSummary> audits = auditRepository.streamAllSummaries()) {
+            audits.forEach(action);
+        }
     }
     
     public Optional<Asset> getAssetById(Long id) {
@@ -102,15 +286,16 @@ public class AssetAuditService {
     }
     
     public Optional<Audit> getAuditById(Long id) {
-        return auditRepository.findById(id);
+        // Callers render or serialize the asset after the session has closed
+        return auditRepository.findWithAssetById(id);
     }
     
-    public List<Asset> getAssetsByDepartment(String department) {
-        return assetRepository.findByDepartment(department);
+    public List<AssetSummary> getAssetsByDepartment(String department) {
+        return assetRepository.findSummariesByDepartment(department);
     }
     
-    public List<Audit> getAuditsByAuditor(String auditorName) {
-        return auditRepository.findByAuditorName(auditorName);
+    public List<AuditSummary> getAuditsByAuditor(String auditorName) {
+        return auditRepository.findSummariesByAuditorName(auditorName);
     }
     
     private Asset createOrUpdateAsset(Map<String, Object> analysisResult, 
@@ -118,45 +303,75 @@ public class AssetAuditService {
                                     Double latitude,
                                     Double longitude) {
         
-        String deviceNumber = (String) analysisResult.get("deviceNumber");
-        Optional<Asset> existingAsset = assetRepository.findByDeviceNumber(deviceNumber);
-        
-        Asset asset;
-        if (existingAsset.isPresent()) {
-            asset = existingAsset.get();
-            // Update existing asset
-            asset.setImagePath(imagePath);
-            asset.setLatitude(latitude);
-            asset.setLongitude(longitude);
-            asset.setAiExtractedInfo(analysisResult.toString());
-        } else {
-            // Create new asset
-            asset = new Asset();
-            asset.setDeviceNumber(deviceNumber);
-            asset.setDeviceName((String) analysisResult.getOrDefault("model", "Unknown Device"));
-            asset.setDepartment((String) analysisResult.getOrDefault("department", "Unknown"));
-            asset.setLocation((String) analysisResult.getOrDefault("location", "Unknown"));
-            asset.setLatitude(latitude);
-            asset.setLongitude(longitude);
-            asset.setBarcode((String) analysisResult.getOrDefault("barcode", ""));
-            asset.setSerialNumber((String) analysisResult.getOrDefault("serialNumber", ""));
-            asset.setModel((String) analysisResult.getOrDefault("model", ""));
-            asset.setManufacturer((String) analysisResult.getOrDefault("manufacturer", ""));
-            asset.setStatus("Pending Audit");
-            asset.setAiExtractedInfo(analysisResult.toString());
-            asset.setImagePath(imagePath);
-            asset.setCreatedAt(LocalDateTime.now());
+        // Only a tag number read off the device identifies an existing asset; anything else is a new asset
+        String tagNumber = readTagNumber(analysisResult);
+        if (tagNumber != null) {
+            // Locked until commit, so a concurrent re-capture reads the image path this one leaves behind
+            Optional<Asset> existingAsset = assetRepository.findForUpdateByDeviceNumber(tagNumber);
+            if (existingAsset.isPresent()) {
+                return updateAsset(existingAsset.get(), analysisResult, imagePath, latitude, longitude);
+            }
         }
         
-        return assetRepository.save(asset);
+        // Create new asset
+        Asset asset = new Asset();
+        asset.setDeviceName((String) analysisResult.getOrDefault("model", "Unknown Device"));
+        asset.setDepartment((String) analysisResult.getOrDefault("department", "Unknown"));
+        asset.setLocation((String) analysisResult.getOrDefault("location", "Unknown"));
+        asset.setLatitude(latitude);
+        asset.setLongitude(longitude);
+        asset.setBarcode((String) analysisResult.getOrDefault("barcode", ""));
+        asset.setSerialNumber((String) analysisResult.getOrDefault("serialNumber", ""));
+        asset.setModel((String) analysisResult.getOrDefault("model", ""));
+        asset.setManufacturer((String) analysisResult.getOrDefault("manufacturer", ""));
+        asset.setStatus("Pending Audit");
+        asset.setAiExtractedInfo(analysisResult.toString());
+        asset.setImagePath(imagePath);
+        asset.setCreatedAt(LocalDateTime.now());
+        
+        asset.setDeviceNumber(tagNumber != null ? tagNumber : deviceNumberAllocator.allocate());
+        // Flush now so a device_number conflict fails this attempt here rather than at commit
+        Asset saved = assetRepository.saveAndFlush(asset);
+        imageStorage.retain(imagePath);
+        dashboardStatsService.recordAssetCreated(saved);
+        return saved;
+    }
+    
+    private Asset updateAsset(Asset asset,
+                              Map<String, Object> analysisResult,
+                              String imagePath,
+                              Double latitude,
+                              Double longitude) {
+        // The asset takes its own reference on the new image
+        String previousImagePath = asset.getImagePath();
+        if (!imagePath.equals(previousImagePath)) {
+            imageStorage.retain(imagePath);
+            if (previousImagePath != null) {
+                imageStorage.release(previousImagePath);
+            }
+        }
+        asset.setImagePath(imagePath);
+        asset.setLatitude(latitude);
+        asset.setLongitude(longitude);
+        asset.setAiExtractedInfo(analysisResult.toString());
+        // Managed within the capture transaction, so no save (and no merge) is needed
+        return asset;
+    }
+    
+    private String readTagNumber(Map<String, Object> analysisResult) {
+        Object deviceNumber = analysisResult.get("deviceNumber");
+        if (deviceNumber instanceof String tag && DeviceNumberAllocator.DEVICE_NUMBER.matcher(tag.trim()).matches()) {
+            return tag.trim();
+        }
+        return null;
     }
     
-    private void createInitialAudit(Asset asset, 
-                                  String auditorName,
-                                  String aiAnalysis,
-                                  String imagePath,
-                                  Double latitude,
-                                  Double longitude) {
+    private Audit createInitialAudit(Asset asset, 
+                                   String auditorName,
+                                   String aiAnalysis,
+                                   String imagePath,
+                                   Double latitude,
+                                   Double longitude) {
         
         Audit audit = new Audit();
         audit.setAsset(asset);
@@ -172,37 +387,69 @@ public class AssetAuditService {
         audit.setDepartment(asset.getDepartment());
         audit.setAuditDate(LocalDateTime.now());
         
-        auditRepository.save(audit);
+        Audit saved = auditRepository.save(audit);
+        dashboardStatsService.recordAuditCreated(saved);
+        return saved;
     }
     
-    private String saveAssetImage(MultipartFile imageFile) throws IOException {
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir + "assets/");
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    public String saveAssetImage(MultipartFile imageFile) throws IOException {
+        try (InputStream input = imageFile.getInputStream()) {
+            return saveAssetImage(input);
         }
-        
-        // Generate unique filename
-        String originalFileName = imageFile.getOriginalFilename();
-        String fileExtension = getFileExtension(originalFileName);
-        String storedFileName = "ASSET_" + UUID.randomUUID().toString() + fileExtension;
-        
-        // Save file to disk
-        Path filePath = uploadPath.resolve(storedFileName);
-        Files.copy(imageFile.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-        
-        return filePath.toString();
     }
     
-    private String getFileExtension(String fileName) {
-        if (fileName == null || !fileName.contains(".")) {
-            return ".jpg";
+    public String saveAssetImage(InputStream input) throws IOException {
+        // The returned path carries one reference, which the audit's evidence image takes over
+        return imageStorage.store(input).path().toString();
+    }
+    
+    public void discardAssetImage(String imagePath) {
+        imageStorage.release(imagePath);
+    }
+    
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+    
+    private <T> CursorPage<T> toCursorPage(List<T> rows, int limit, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
         }
-        return fileName.substring(fileName.lastIndexOf("."));
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
     }
     
-    public byte[] getAssetImage(String filename) throws IOException {
-        Path filePath = Paths.get(uploadDir, "assets", filename);
-        return Files.readAllBytes(filePath);
+    public Path getAssetImageFile(String filename) throws IOException {
+        Optional<Path> blob = imageStorage.resolveBlobFile(filename);
+        if (blob.isPresent()) {
+            if (!Files.isReadable(blob.get())) {
+                throw new NoSuchFileException(filename, null, "Asset image not found");
+            }
+            return blob.get();
+        }
+        
+        // Images captured before the content-addressed store live in uploads/assets
+        Path assetsDir = Paths.get(uploadDir, "assets").toAbsolutePath().normalize();
+        Path filePath = assetsDir.resolve(filename).normalize();
+        // Reject names such as ../../etc/passwd that escape the assets directory
+        if (!filePath.startsWith(assetsDir) || !Files.isReadable(filePath)) {
+            throw new NoSuchFileException(filename, null, "Asset image not found");
+        }
+        return filePath;
+    }
+    
+    public RenditionFile getAssetImageRendition(String filename, Rendition rendition) throws IOException {
+        Path original = getAssetImageFile(filename);
+        String contentType = ImageFormats.detectContentType(readHeader(original), "image/jpeg");
+        return renditionService.getRendition(original, contentType, rendition);
+    }
+    
+    private byte[] readHeader(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.readNBytes(16);
+        }
     }
 }
@@ -0,0 +1,55 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An engine that turns an asset photo into the analysis JSON stored with captures: an object
+ * with the fields described in {@link RemoteVisionAnalyzer#ANALYSIS_FIELDS}, leaving out any it
+ * could not read. Engines are Spring beans; {@code vision.ai.engine} picks one by name.
+ */
+public interface AssetImageAnalyzer {
+
+    String getName();
+
+    // False when the engine is not configured, e.g. a remote engine without an API key
+    default boolean isAvailable() {
+        return true;
+    }
+
+    String analyze(byte[] imageBytes) throws IOException;
+
+    // One analysis per image, in order. Engines that can pack several images into one call override this
+    default List<String> analyze(List<byte[]> images) throws IOException {
+        List<String> analyses = new ArrayList<>();
+        for (byte[] image : images) {
+            analyses.add(analyze(image));
+        }
+        return analyses;
+    }
+
+    default Map<String, Object> getStats() {
+        return Map.of();
+    }
+
+    /**
+     * Thrown when an engine could only partly analyze its images, e.g. the tiered engine when
+     * the remote model fails. Carries one analysis per image, from whatever could still be read;
+     * callers may use them but should not cache them.
+     */
+    class PartialAnalysisException extends IOException {
+
+        private final List<String> analyses;
+
+        public PartialAnalysisException(String message, List<String> analyses, Throwable cause) {
+            super(message, cause);
+            this.analyses = List.copyOf(analyses);
+        }
+
+        public List<String> getAnalyses() {
+            return analyses;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetImportRow;
+import com.example.demo.dto.ImportReport;
+import com.example.demo.dto.ImportReport.ImportError;
+import com.example.demo.entity.Asset;
+import com.example.demo.repository.AssetRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Streams CSV or NDJSON inventory records into the assets table, upserting on device number.
+ * Rows are committed in chunks: each chunk loads its existing assets with one IN query, then
+ * inserts and updates go out as JDBC batches and the persistence context is cleared.
+ */
+@Service
+@Slf4j
+public class AssetImportService {
+    
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+    
+    private static final int MAX_CHUNK_SIZE = 10_000;
+    
+    private final AssetRepository assetRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final DashboardStatsService dashboardStatsService;
+    private final DeviceNumberAllocator deviceNumberAllocator;
+    
+    @Value("${asset.import.chunk-size:1000}")
+    private int defaultChunkSize;
+    
+    @Value("${asset.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public AssetImportService(AssetRepository assetRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              DashboardStatsService dashboardStatsService,
+                              DeviceNumberAllocator deviceNumberAllocator) {
+        this.assetRepository = assetRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.dashboardStatsService = dashboardStatsService;
+        this.deviceNumberAllocator = deviceNumberAllocator;
+    }
+
+    public ImportReport importAssets(InputStream input, String format, Integer chunkSize) throws IOException {
+        int size = chunkSize == null || chunkSize <= 0 ? defaultChunkSize : Math.min(chunkSize, MAX_CHUNK_SIZE);
+        ImportProgress progress = new ImportProgress(format, maxReportedErrors);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        
+        RowSource source = switch (format) {
+            case FORMAT_CSV -> csvRows(reader, progress);
+            case FORMAT_NDJSON -> ndjsonRows(reader, progress);
+            default -> throw new IllegalArgumentException("Unsupported import format: " + format);
+        };
+        
+        List<NumberedRow> chunk = new ArrayList<>(size);
+        try {
+            NumberedRow row;
+            while ((row = source.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() >= size) {
+                    commitChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (CsvReader.MalformedRecordException e) {
+            // An open quote runs to the end of the input, so nothing after it can be read. Rows before
+            // it are still imported, and the record is reported next to the chunks already committed
+            progress.rowsRead++;
+            progress.fail(e.getLine(), null, e.getMessage() + "; the rest of the file was not read");
+        }
+        if (!chunk.isEmpty()) {
+            commitChunk(chunk, progress);
+        }
+        
+        ImportReport report = progress.toReport();
+        log.info("Asset import finished: {} rows, {} inserted, {} updated, {} failed in {} ms",
+                report.rowsRead(), report.inserted(), report.updated(), report.failed(), report.durationMillis());
+        return report;
+    }
+    
+    private void commitChunk(List<NumberedRow> rows, ImportProgress progress) {
+        try {
+            int[] counts = upsert(rows);
+            progress.inserted += counts[0];
+            progress.updated += counts[1];
+            progress.chunksCommitted++;
+        } catch (RuntimeException e) {
+            // Find the offending rows by retrying the chunk one row per transaction
+            log.warn("Import chunk starting on line {} failed, retrying row by row: {}",
+                    rows.get(0).line(), e.getMessage());
+            for (NumberedRow row : rows) {
+                try {
+                    int[] counts = upsert(List.of(row));
+                    progress.inserted += counts[0];
+                    progress.updated += counts[1];
+                } catch (RuntimeException rowFailure) {
+                    progress.fail(row.line(), row.row().deviceNumber(), rootMessage(rowFailure));
+                }
+            }
+            progress.chunksCommitted++;
+        }
+        log.info("Asset import progress: {} rows read, {} inserted, {} updated, {} failed",
+                progress.rowsRead, progress.inserted, progress.updated, progress.failed);
+    }
+    
+    // Returns {inserted, updated}
+    private int[] upsert(List<NumberedRow> rows) {
+        // When a device number repeats within the chunk, the last row wins
+        Map<String, AssetImportRow> byDeviceNumber = new LinkedHashMap<>();
+        for (NumberedRow row : rows) {
+            byDeviceNumber.put(row.row().deviceNumber(), row.row());
+        }
+        
+        return transactionTemplate.execute(status -> {
+            Map<String, Asset> existing = assetRepository.findByDeviceNumberIn(byDeviceNumber.keySet()).stream()
+                    .collect(Collectors.toMap(Asset::getDeviceNumber, Function.identity()));
+            
+            List<String> insertedNumbers = new ArrayList<>();
+            int updated = 0;
+            LocalDateTime now = LocalDateTime.now();
+            for (AssetImportRow row : byDeviceNumber.values()) {
+                Asset asset = existing.get(row.deviceNumber());
+                if (asset == null) {
+                    asset = new Asset();
+                    asset.setDeviceNumber(row.deviceNumber());
+                    asset.setDeviceName("Unknown Device");
+                    asset.setStatus("Pending Audit");
+                    asset.setCreatedAt(now);
+                    apply(row, asset);
+                    entityManager.persist(asset);
+                    dashboardStatsService.recordAssetCreated(asset);
+                    insertedNumbers.add(row.deviceNumber());
+                } else {
+                    String previousStatus = asset.getStatus();
+                    String previousDepartment = asset.getDepartment();
+                    apply(row, asset);
+                    dashboardStatsService.recordAssetChanged(previousStatus, previousDepartment, asset);
+                    updated++;
+                }
+            }
+            
+            // Imported numbers in the allocator's format must never be handed out to a capture later
+            deviceNumberAllocator.reserveThrough(insertedNumbers);
+            entityManager.flush();
+            entityManager.clear();
+            return new int[]{insertedNumbers.size(), updated};
+        });
+    }
+    
+    // Columns left empty in the file keep the asset's current value
+    private void apply(AssetImportRow row, Asset asset) {
+        if (row.deviceName() != null) {
+            asset.setDeviceName(row.deviceName());
+        }
+        if (row.department() != null) {
+            asset.setDepartment(row.department());
+        }
+        if (row.location() != null) {
+            asset.setLocation(row.location());
+        }
+        if (row.latitude() != null) {
+            asset.setLatitude(row.latitude());
+        }
+        if (row.longitude() != null) {
+            asset.setLongitude(row.longitude());
+        }
+        if (row.barcode() != null) {
+            asset.setBarcode(row.barcode());
+        }
+        if (row.serialNumber() != null) {
+            asset.setSerialNumber(row.serialNumber());
+        }
+        if (row.model() != null) {
+            asset.setModel(row.model());
+        }
+        if (row.manufacturer() != null) {
+            asset.setManufacturer(row.manufacturer());
+        }
+        if (row.status() != null) {
+            asset.setStatus(row.status());
+        }
+    }
+    
+    private RowSource csvRows(BufferedReader reader, ImportProgress progress) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalizeColumn(header.get(i)), i);
+        }
+        if (!columns.containsKey("devicenumber")) {
+            throw new IllegalArgumentException("CSV header must include a deviceNumber column");
+        }
+        
+        return () -> {
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                long line = csv.getRecordLine();
+                progress.rowsRead++;
+                try {
+                    AssetImportRow row = new AssetImportRow(
+                            column(record, columns, "devicenumber"),
+                            column(record, columns, "devicename"),
+                            column(record, columns, "department"),
+                            column(record, columns, "location"),
+                            parseDouble(column(record, columns, "latitude"), "latitude"),
+                            parseDouble(column(record, columns, "longitude"), "longitude"),
+                            column(record, columns, "barcode"),
+                            column(record, columns, "serialnumber"),
+                            column(record, columns, "model"),
+                            column(record, columns, "manufacturer"),
+                            column(record, columns, "status"));
+                    NumberedRow numbered = validate(line, row, progress);
+                    if (numbered != null) {
+                        return numbered;
+                    }
+                } catch (IllegalArgumentException e) {
+                    progress.fail(line, column(record, columns, "devicenumber"), e.getMessage());
+                }
+            }
+            return null;
+        };
+    }
+    
+    private RowSource ndjsonRows(BufferedReader reader, ImportProgress progress) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber[0]++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                progress.rowsRead++;
+                try {
+                    AssetImportRow row = objectMapper.readValue(line, AssetImportRow.class);
+                    NumberedRow numbered = validate(lineNumber[0], row, progress);
+                    if (numbered != null) {
+                        return numbered;
+                    }
+                } catch (JsonProcessingException e) {
+                    progress.fail(lineNumber[0], null, "Invalid JSON: " + e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+    
+    private NumberedRow validate(long line, AssetImportRow row, ImportProgress progress) {
+        if (row.deviceNumber() == null || row.deviceNumber().isBlank()) {
+            progress.fail(line, null, "deviceNumber is required");
+            return null;
+        }
+        return new NumberedRow(line, row);
+    }
+    
+    // "Device Number", "device_number" and "deviceNumber" all name the same column
+    private static String normalizeColumn(String name) {
+        return name.replace("\uFEFF", "").replaceAll("[\\s_-]", "").toLowerCase(Locale.ROOT);
+    }
+    
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static Double parseDouble(String value, String name) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+    
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return String.valueOf(root.getMessage());
+    }
+    
+    private interface RowSource {
+        NumberedRow next() throws IOException;
+    }
+    
+    private record NumberedRow(long line, AssetImportRow row) {
+    }
+    
+    private static final class ImportProgress {
+        private final String format;
+        private final int maxErrors;
+        private final long started = System.currentTimeMillis();
+        private final List<ImportError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long inserted;
+        private long updated;
+        private long failed;
+        private int chunksCommitted;
+        
+        ImportProgress(String format, int maxErrors) {
+            this.format = format;
+            this.maxErrors = maxErrors;
+        }
+        
+        void fail(long line, String deviceNumber, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportError(line, deviceNumber, message));
+            }
+        }
+        
+        ImportReport toReport() {
+            return new ImportReport(format, rowsRead, inserted, updated, failed, chunksCommitted,
+                    System.currentTimeMillis() - started, List.copyOf(errors), failed > errors.size());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CaptureJob;
+import com.example.demo.repository.CaptureJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@Slf4j
+public class CaptureJobService {
+    
+    public static final String STATUS_PENDING = "Pending";
+    public static final String STATUS_PROCESSING = "Processing";
+    public static final String STATUS_COMPLETED = "Completed";
+    public static final String STATUS_FAILED = "Failed";
+    
+    private final CaptureJobRepository captureJobRepository;
+    private final AssetAuditService assetAuditService;
+    private final VisionAIService visionAIService;
+    private final ThreadPoolExecutor workers;
+    // One permit per running or queued job; acquired before anything is written so a full queue has no side effects
+    private final Semaphore slots;
+
+    public CaptureJobService(CaptureJobRepository captureJobRepository,
+                             AssetAuditService assetAuditService,
+                             VisionAIService visionAIService,
+                             @Value("${capture.worker.pool-size:4}") int poolSize,
+                             @Value("${capture.worker.queue-capacity:100}") int queueCapacity,
+                             WorkerThreads workerThreads) {
+        this.captureJobRepository = captureJobRepository;
+        this.assetAuditService = assetAuditService;
+        this.visionAIService = visionAIService;
+        this.slots = new Semaphore(poolSize + queueCapacity);
+        // pool-size still caps concurrent jobs when they run on virtual threads
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), workerThreads.threadFactory("capture-"));
+    }
+
+    public CaptureJob submit(MultipartFile imageFile,
+                             String auditorName,
+                             Double latitude,
+                             Double longitude) throws IOException {
+        if (imageFile.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        try (InputStream input = imageFile.getInputStream()) {
+            return submit(input, auditorName, latitude, longitude);
+        }
+    }
+    
+    public CaptureJob submit(InputStream imageInput,
+                             String auditorName,
+                             Double latitude,
+                             Double longitude) throws IOException {
+        if (!slots.tryAcquire()) {
+            throw new RejectedExecutionException("Capture queue is full");
+        }
+        
+        String imagePath = null;
+        Long jobId = null;
+        try {
+            // Persist the image and a pending job before returning to the client
+            CaptureJob job = new CaptureJob();
+            job.setStatus(STATUS_PENDING);
+            job.setAuditorName(auditorName);
+            job.setLatitude(latitude);
+            job.setLongitude(longitude);
+            imagePath = assetAuditService.saveAssetImage(imageInput);
+            job.setImagePath(imagePath);
+            job.setCreatedAt(LocalDateTime.now());
+            job = captureJobRepository.save(job);
+            jobId = job.getId();
+            
+            enqueue(jobId);
+            return job;
+        } catch (IOException | RuntimeException e) {
+            slots.release();
+            // The client is told the capture failed and will retry, so nothing of this attempt may be resumed
+            if (jobId != null) {
+                markFailed(jobId, imagePath, e);
+            } else if (imagePath != null) {
+                assetAuditService.discardAssetImage(imagePath);
+            }
+            throw e;
+        }
+    }
+    
+    public Optional<CaptureJob> getJob(Long id) {
+        return captureJobRepository.findById(id);
+    }
+    
+    // Jobs interrupted by a shutdown are picked up again on the next start of the server;
+    // one-off command-line runs such as --export leave them alone
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs(ApplicationReadyEvent event) {
+        if (!(event.getApplicationContext() instanceof WebServerApplicationContext)) {
+            return;
+        }
+        List<CaptureJob> unfinished = captureJobRepository.findByStatusInOrderByCreatedAtAsc(
+                List.of(STATUS_PENDING, STATUS_PROCESSING));
+        for (CaptureJob job : unfinished) {
+            if (!slots.tryAcquire()) {
+                log.warn("Capture queue is full, leaving remaining unfinished jobs pending");
+                return;
+            }
+            try {
+                enqueue(job.getId());
+            } catch (RejectedExecutionException e) {
+                slots.release();
+                log.warn("Capture workers are not accepting jobs, leaving remaining unfinished jobs pending");
+                return;
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+    }
+    
+    // The task releases the caller's slot once it has run; if it is rejected, the caller still owns the slot
+    private void enqueue(Long jobId) {
+        workers.execute(() -> {
+            try {
+                runJob(jobId);
+            } finally {
+                slots.release();
+            }
+        });
+    }
+    
+    private void runJob(Long jobId) {
+        String imagePath = null;
+        try {
+            Optional<CaptureJob> jobOpt = captureJobRepository.findById(jobId);
+            // A job resumed after its capture committed, or after its failure was recorded, is already done
+            if (jobOpt.isEmpty() || STATUS_COMPLETED.equals(jobOpt.get().getStatus())
+                    || STATUS_FAILED.equals(jobOpt.get().getStatus())) {
+                return;
+            }
+            
+            CaptureJob job = jobOpt.get();
+            imagePath = job.getImagePath();
+            job.setStatus(STATUS_PROCESSING);
+            job = captureJobRepository.save(job);
+            
+            byte[] imageBytes = Files.readAllBytes(Paths.get(job.getImagePath()));
+            String aiAnalysis = visionAIService.analyzeAssetImage(imageBytes);
+            // The job completes in the capture's own transaction, so a crash can never record it twice
+            assetAuditService.recordCapture(aiAnalysis, job.getImagePath(),
+                    job.getAuditorName(), job.getLatitude(), job.getLongitude(),
+                    audit -> captureJobRepository.markCompleted(jobId, STATUS_COMPLETED, audit.getAsset().getId(),
+                            audit.getId(), audit.getDeviceNumber(), LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("Capture job {} failed", jobId, e);
+            markFailed(jobId, imagePath, e);
+        }
+    }
+    
+    private void markFailed(Long jobId, String imagePath, Exception failure) {
+        String message = String.valueOf(failure.getMessage());
+        message = message.length() > 1000 ? message.substring(0, 1000) : message;
+        try {
+            int updated = captureJobRepository.markFailed(jobId, STATUS_FAILED, STATUS_COMPLETED,
+                    message, LocalDateTime.now());
+            // No audit took over the stored image, so drop the job's reference to it. Only once the
+            // failure is on record, or a resumed job would release the same reference again
+            if (updated > 0 && imagePath != null) {
+                assetAuditService.discardAssetImage(imagePath);
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not record failure of capture job {}; it will be retried on the next start", jobId, e);
+        }
+    }
+}
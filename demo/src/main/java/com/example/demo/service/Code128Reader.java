@@ -0,0 +1,258 @@
+package com.example.demo.service;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads Code 128 barcodes, the symbology used on most asset tags and serial-number labels.
+ * A fixed number of rows and columns are sampled across the photo; each scanline is
+ * thresholded into bar and space widths, which are matched against the symbol table and
+ * accepted only when the check symbol agrees. Labels photographed sideways or upside down
+ * are found through the column and reversed scans.
+ */
+final class Code128Reader {
+
+    private static final int[][] PATTERNS = {
+            {2, 1, 2, 2, 2, 2}, {2, 2, 2, 1, 2, 2}, {2, 2, 2, 2, 2, 1}, {1, 2, 1, 2, 2, 3}, {1, 2, 1, 3, 2, 2},
+            {1, 3, 1, 2, 2, 2}, {1, 2, 2, 2, 1, 3}, {1, 2, 2, 3, 1, 2}, {1, 3, 2, 2, 1, 2}, {2, 2, 1, 2, 1, 3},
+            {2, 2, 1, 3, 1, 2}, {2, 3, 1, 2, 1, 2}, {1, 1, 2, 2, 3, 2}, {1, 2, 2, 1, 3, 2}, {1, 2, 2, 2, 3, 1},
+            {1, 1, 3, 2, 2, 2}, {1, 2, 3, 1, 2, 2}, {1, 2, 3, 2, 2, 1}, {2, 2, 3, 2, 1, 1}, {2, 2, 1, 1, 3, 2},
+            {2, 2, 1, 2, 3, 1}, {2, 1, 3, 2, 1, 2}, {2, 2, 3, 1, 1, 2}, {3, 1, 2, 1, 3, 1}, {3, 1, 1, 2, 2, 2},
+            {3, 2, 1, 1, 2, 2}, {3, 2, 1, 2, 2, 1}, {3, 1, 2, 2, 1, 2}, {3, 2, 2, 1, 1, 2}, {3, 2, 2, 2, 1, 1},
+            {2, 1, 2, 1, 2, 3}, {2, 1, 2, 3, 2, 1}, {2, 3, 2, 1, 2, 1}, {1, 1, 1, 3, 2, 3}, {1, 3, 1, 1, 2, 3},
+            {1, 3, 1, 3, 2, 1}, {1, 1, 2, 3, 1, 3}, {1, 3, 2, 1, 1, 3}, {1, 3, 2, 3, 1, 1}, {2, 1, 1, 3, 1, 3},
+            {2, 3, 1, 1, 1, 3}, {2, 3, 1, 3, 1, 1}, {1, 1, 2, 1, 3, 3}, {1, 1, 2, 3, 3, 1}, {1, 3, 2, 1, 3, 1},
+            {1, 1, 3, 1, 2, 3}, {1, 1, 3, 3, 2, 1}, {1, 3, 3, 1, 2, 1}, {3, 1, 3, 1, 2, 1}, {2, 1, 1, 3, 3, 1},
+            {2, 3, 1, 1, 3, 1}, {2, 1, 3, 1, 1, 3}, {2, 1, 3, 3, 1, 1}, {2, 1, 3, 1, 3, 1}, {3, 1, 1, 1, 2, 3},
+            {3, 1, 1, 3, 2, 1}, {3, 3, 1, 1, 2, 1}, {3, 1, 2, 1, 1, 3}, {3, 1, 2, 3, 1, 1}, {3, 3, 2, 1, 1, 1},
+            {3, 1, 4, 1, 1, 1}, {2, 2, 1, 4, 1, 1}, {4, 3, 1, 1, 1, 1}, {1, 1, 1, 2, 2, 4}, {1, 1, 1, 4, 2, 2},
+            {1, 2, 1, 1, 2, 4}, {1, 2, 1, 4, 2, 1}, {1, 4, 1, 1, 2, 2}, {1, 4, 1, 2, 2, 1}, {1, 1, 2, 2, 1, 4},
+            {1, 1, 2, 4, 1, 2}, {1, 2, 2, 1, 1, 4}, {1, 2, 2, 4, 1, 1}, {1, 4, 2, 1, 1, 2}, {1, 4, 2, 2, 1, 1},
+            {2, 4, 1, 2, 1, 1}, {2, 2, 1, 1, 1, 4}, {4, 1, 3, 1, 1, 1}, {2, 4, 1, 1, 1, 2}, {1, 3, 4, 1, 1, 1},
+            {1, 1, 1, 2, 4, 2}, {1, 2, 1, 1, 4, 2}, {1, 2, 1, 2, 4, 1}, {1, 1, 4, 2, 1, 2}, {1, 2, 4, 1, 1, 2},
+            {1, 2, 4, 2, 1, 1}, {4, 1, 1, 2, 1, 2}, {4, 2, 1, 1, 1, 2}, {4, 2, 1, 2, 1, 1}, {2, 1, 2, 1, 4, 1},
+            {2, 1, 4, 1, 2, 1}, {4, 1, 2, 1, 2, 1}, {1, 1, 1, 1, 4, 3}, {1, 1, 1, 3, 4, 1}, {1, 3, 1, 1, 4, 1},
+            {1, 1, 4, 1, 1, 3}, {1, 1, 4, 3, 1, 1}, {4, 1, 1, 1, 1, 3}, {4, 1, 1, 3, 1, 1}, {1, 1, 3, 1, 4, 1},
+            {1, 1, 4, 1, 3, 1}, {3, 1, 1, 1, 4, 1}, {4, 1, 1, 1, 3, 1}, {2, 1, 1, 4, 1, 2}, {2, 1, 1, 2, 1, 4},
+            {2, 1, 1, 2, 3, 2}, {2, 3, 3, 1, 1, 1}
+    };
+
+    static final int START_A = 103;
+    static final int START_B = 104;
+    static final int START_C = 105;
+    static final int STOP = 106;
+
+    private static final int CODE_C = 99;
+    private static final int CODE_B = 100;
+    private static final int CODE_A = 101;
+    private static final int SHIFT = 98;
+
+    // Maximum mean and per-element deviation from the ideal widths, in modules
+    private static final float MAX_AVG_VARIANCE = 0.25f;
+    private static final float MAX_INDIVIDUAL_VARIANCE = 0.7f;
+    private static final int SCANLINES = 48;
+
+    private Code128Reader() {
+    }
+
+    /** Every distinct barcode found in the image, in the order first seen. */
+    static List<String> read(BufferedImage image) {
+        Set<String> found = new LinkedHashSet<>();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] row = new int[width];
+        for (int i = 1; i <= Math.min(SCANLINES, height); i++) {
+            int y = (int) ((long) i * height / (Math.min(SCANLINES, height) + 1));
+            image.getRGB(0, y, width, 1, row, 0, width);
+            scanLine(row, found);
+        }
+        int[] column = new int[height];
+        for (int i = 1; i <= Math.min(SCANLINES, width); i++) {
+            int x = (int) ((long) i * width / (Math.min(SCANLINES, width) + 1));
+            image.getRGB(x, 0, 1, height, column, 0, 1);
+            scanLine(column, found);
+        }
+        return new ArrayList<>(found);
+    }
+
+    // Module widths of the symbol for a value; used to render test labels
+    static int[] pattern(int value) {
+        return value == STOP ? new int[]{2, 3, 3, 1, 1, 1, 2} : PATTERNS[value].clone();
+    }
+
+    private static void scanLine(int[] rgb, Set<String> found) {
+        int[] runs = runLengths(rgb);
+        if (runs.length < 30) {
+            return;
+        }
+        decodeRuns(runs, found);
+        // Read backwards for labels upside down; a leading empty light run keeps dark runs at odd indexes
+        int lead = runs.length % 2 == 0 ? 1 : 0;
+        int[] reversed = new int[runs.length + lead];
+        for (int i = 0; i < runs.length; i++) {
+            reversed[lead + i] = runs[runs.length - 1 - i];
+        }
+        decodeRuns(reversed, found);
+    }
+
+    // Alternating light/dark run widths, always starting with a light run (possibly of width 0)
+    private static int[] runLengths(int[] rgb) {
+        int min = 255;
+        int max = 0;
+        int[] luminance = new int[rgb.length];
+        for (int i = 0; i < rgb.length; i++) {
+            int p = rgb[i];
+            luminance[i] = (((p >> 16) & 0xff) * 299 + ((p >> 8) & 0xff) * 587 + (p & 0xff) * 114) / 1000;
+            min = Math.min(min, luminance[i]);
+            max = Math.max(max, luminance[i]);
+        }
+        if (max - min < 48) {
+            return new int[0];
+        }
+        int threshold = (min + max) / 2;
+
+        int[] runs = new int[rgb.length + 1];
+        int count = 0;
+        boolean dark = false;
+        int length = 0;
+        for (int value : luminance) {
+            boolean pixelDark = value < threshold;
+            if (pixelDark != dark) {
+                runs[count++] = length;
+                dark = pixelDark;
+                length = 0;
+            }
+            length++;
+        }
+        runs[count++] = length;
+        int[] trimmed = new int[count];
+        System.arraycopy(runs, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
+    // Dark runs sit at odd indexes; try every one as the start of a symbol
+    private static void decodeRuns(int[] runs, Set<String> found) {
+        for (int start = 1; start + 6 < runs.length; start += 2) {
+            String text = decodeAt(runs, start);
+            if (text != null) {
+                found.add(text);
+            }
+        }
+    }
+
+    private static String decodeAt(int[] runs, int start) {
+        int symbolWidth = sum(runs, start, 6);
+        // Require a quiet zone of at least half a symbol in front of the start code
+        if (runs[start - 1] < symbolWidth / 2) {
+            return null;
+        }
+        int startCode = bestMatch(runs, start);
+        if (startCode < START_A || startCode > START_C) {
+            return null;
+        }
+
+        List<Integer> values = new ArrayList<>();
+        values.add(startCode);
+        int position = start + 6;
+        while (position + 6 < runs.length) {
+            int width = sum(runs, position, 6);
+            if (width < symbolWidth * 2 / 3 || width > symbolWidth * 3 / 2) {
+                return null;
+            }
+            int value = bestMatch(runs, position);
+            if (value < 0) {
+                return null;
+            }
+            if (value == STOP) {
+                return checksumMatches(values) ? text(values) : null;
+            }
+            if (value >= START_A) {
+                return null;
+            }
+            values.add(value);
+            position += 6;
+        }
+        return null;
+    }
+
+    private static int bestMatch(int[] runs, int offset) {
+        int total = sum(runs, offset, 6);
+        float unit = total / 11f;
+        float bestVariance = MAX_AVG_VARIANCE;
+        int best = -1;
+        for (int value = 0; value < PATTERNS.length; value++) {
+            float variance = 0;
+            for (int i = 0; i < 6 && variance >= 0; i++) {
+                float deviation = Math.abs(runs[offset + i] - PATTERNS[value][i] * unit);
+                variance = deviation > MAX_INDIVIDUAL_VARIANCE * unit ? -1 : variance + deviation;
+            }
+            if (variance < 0) {
+                continue;
+            }
+            variance /= total;
+            if (variance < bestVariance) {
+                bestVariance = variance;
+                best = value;
+            }
+        }
+        return best;
+    }
+
+    // Last value is the check symbol: start value plus each data value weighted by position, mod 103
+    private static boolean checksumMatches(List<Integer> values) {
+        if (values.size() < 3) {
+            return false;
+        }
+        int checksum = values.get(0);
+        for (int i = 1; i < values.size() - 1; i++) {
+            checksum += i * values.get(i);
+        }
+        return checksum % 103 == values.get(values.size() - 1);
+    }
+
+    private static String text(List<Integer> values) {
+        StringBuilder text = new StringBuilder();
+        int codeSet = values.get(0);
+        boolean shifted = false;
+        for (int i = 1; i < values.size() - 1; i++) {
+            int value = values.get(i);
+            int set = shifted ? (codeSet == START_A ? START_B : START_A) : codeSet;
+            shifted = false;
+            if (set == START_C) {
+                if (value < 100) {
+                    text.append(value < 10 ? "0" : "").append(value);
+                } else if (value == CODE_B) {
+                    codeSet = START_B;
+                } else if (value == CODE_A) {
+                    codeSet = START_A;
+                }
+                // 102 is FNC1, a GS1 marker with no text of its own
+                continue;
+            }
+            if (value < 64 || (set == START_B && value < 96)) {
+                text.append((char) (value + 32));
+            } else if (set == START_A && value < 96) {
+                text.append((char) (value - 64));
+            } else if (value == SHIFT) {
+                shifted = true;
+            } else if (value == CODE_C) {
+                codeSet = START_C;
+            } else if (value == (set == START_A ? CODE_B : CODE_A)) {
+                codeSet = set == START_A ? START_B : START_A;
+            }
+            // FNC1-4 carry no text
+        }
+        return text.isEmpty() ? null : text.toString();
+    }
+
+    private static int sum(int[] runs, int offset, int length) {
+        int total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            total += runs[i];
+        }
+        return total;
+    }
+}
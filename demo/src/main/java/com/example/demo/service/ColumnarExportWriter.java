@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Column-oriented export in the spirit of Parquet: rows are buffered into row groups and each
+ * group is written column by column, so a reader can skip the columns it does not need and
+ * similar values sit together for the outer gzip. Only one row group is held in memory.
+ *
+ * <pre>
+ * file      := "ACOL" version:u8 columnCount:i32 column* rowGroup* 0:i32 totalRows:i64 "ACOL"
+ * column    := name:utf type:u8          (0 string, 1 long, 2 double, 3 timestamp)
+ * rowGroup  := rowCount:i32 columnData*  (one per column, in column order)
+ * columnData:= nullBitmap:u8[(rowCount + 7) / 8] value*   (values only for non-null rows)
+ * value     := string: length:i32 utf8 bytes | long: i64 | double: f64
+ *            | timestamp: i64 microseconds from 1970-01-01T00:00 (local time as stored, no zone)
+ * </pre>
+ * All numbers are big-endian.
+ */
+final class ColumnarExportWriter implements ExportWriter {
+
+    private static final byte[] MAGIC = "ACOL".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int ROW_GROUP_SIZE = 10_000;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final List<Column> columns;
+    private final DataOutputStream out;
+    private final Object[][] rowGroup;
+    private int rowsInGroup;
+    private long totalRows;
+
+    ColumnarExportWriter(List<Column> columns, OutputStream target) throws IOException {
+        this.columns = columns;
+        this.out = new DataOutputStream(new BufferedOutputStream(target, 64 * 1024));
+        this.rowGroup = new Object[columns.size()][ROW_GROUP_SIZE];
+
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(columns.size());
+        for (Column column : columns) {
+            out.writeUTF(column.name());
+            out.writeByte(column.type().ordinal());
+        }
+    }
+
+    @Override
+    public void writeRow(Object[] values) throws IOException {
+        for (int c = 0; c < values.length; c++) {
+            rowGroup[c][rowsInGroup] = values[c];
+        }
+        rowsInGroup++;
+        if (rowsInGroup == ROW_GROUP_SIZE) {
+            flushRowGroup();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        flushRowGroup();
+        out.writeInt(0);
+        out.writeLong(totalRows);
+        out.write(MAGIC);
+        out.flush();
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (rowsInGroup == 0) {
+            return;
+        }
+        out.writeInt(rowsInGroup);
+        for (int c = 0; c < columns.size(); c++) {
+            Object[] values = rowGroup[c];
+            byte[] nulls = new byte[(rowsInGroup + 7) / 8];
+            for (int r = 0; r < rowsInGroup; r++) {
+                if (values[r] == null) {
+                    nulls[r / 8] |= (byte) (1 << (r % 8));
+                }
+            }
+            out.write(nulls);
+
+            ColumnType type = columns.get(c).type();
+            for (int r = 0; r < rowsInGroup; r++) {
+                if (values[r] != null) {
+                    writeValue(type, values[r]);
+                }
+                // Drop the reference so the previous group can be collected
+                values[r] = null;
+            }
+        }
+        totalRows += rowsInGroup;
+        rowsInGroup = 0;
+    }
+
+    private void writeValue(ColumnType type, Object value) throws IOException {
+        switch (type) {
+            case LONG -> out.writeLong(((Number) value).longValue());
+            case DOUBLE -> out.writeDouble(((Number) value).doubleValue());
+            case TIMESTAMP -> out.writeLong(ChronoUnit.MICROS.between(EPOCH, (LocalDateTime) value));
+            default -> {
+                byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+}
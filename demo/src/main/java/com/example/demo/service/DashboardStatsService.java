@@ -0,0 +1,247 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AuditSummary;
+import com.example.demo.dto.DashboardActivity;
+import com.example.demo.dto.DashboardStats;
+import com.example.demo.dto.GroupCount;
+import com.example.demo.entity.Asset;
+import com.example.demo.entity.Audit;
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.AuditRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Counters behind the audit dashboard. They are loaded with a handful of GROUP BY queries at
+ * startup and then kept current by the services that create assets and audits, so rendering
+ * the dashboard never reads the assets or audits tables.
+ */
+@Service
+@Slf4j
+public class DashboardStatsService implements SmartInitializingSingleton {
+
+    public static final String EVENT_CAPTURED = "captured";
+    public static final String EVENT_COMPLETED = "completed";
+
+    // Audit conditions counted as issues found
+    public static final Set<String> ISSUE_CONDITIONS = Set.of("Poor", "Broken");
+
+    private static final String UNKNOWN = "Unknown";
+
+    private final AssetRepository assetRepository;
+    private final AuditRepository auditRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${dashboard.recent-activity:10}")
+    private int recentActivityLimit;
+
+    // Updates share the read lock; a rebuild takes the write lock to swap in fresh counts
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, AtomicLong> assetsByStatus = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> assetsByDepartment = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> auditsByStatus = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> auditsByAuditor = new ConcurrentHashMap<>();
+    private final AtomicLong openAudits = new AtomicLong();
+    private final AtomicLong issuesFound = new AtomicLong();
+    private final Deque<DashboardActivity> recentActivity = new ArrayDeque<>();
+
+    public DashboardStatsService(AssetRepository assetRepository,
+                                 AuditRepository auditRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.assetRepository = assetRepository;
+        this.auditRepository = auditRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Runs before the web server starts, so no capture can commit between the GROUP BY
+    // queries and the deltas that follow them and be counted twice
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                load(assetsByStatus, assetRepository.countGroupedByStatus());
+                load(assetsByDepartment, assetRepository.countGroupedByDepartment());
+                load(auditsByStatus, auditRepository.countGroupedByStatus());
+                load(auditsByAuditor, auditRepository.countGroupedByAuditorName());
+                openAudits.set(auditRepository.countByCompletedAtIsNull());
+                issuesFound.set(auditRepository.countByConditionIn(ISSUE_CONDITIONS));
+                loadRecentActivity();
+            });
+            log.info("Dashboard statistics rebuilt in {} ms", System.currentTimeMillis() - started);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public DashboardStats getStats() {
+        lock.readLock().lock();
+        try {
+            long totalAssets = sum(assetsByStatus);
+            long totalAudits = sum(auditsByStatus);
+            long open = openAudits.get();
+            List<DashboardActivity> recent;
+            synchronized (recentActivity) {
+                recent = List.copyOf(recentActivity);
+            }
+            return new DashboardStats(totalAssets, totalAudits, open, totalAudits - open, issuesFound.get(),
+                    snapshot(assetsByStatus), snapshot(assetsByDepartment),
+                    snapshot(auditsByStatus), snapshot(auditsByAuditor), recent);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The record* methods are called inside the writing transaction and apply once it commits
+
+    public void recordAssetCreated(Asset asset) {
+        String status = asset.getStatus();
+        String department = asset.getDepartment();
+        AfterCommit.run(() -> {
+            add(assetsByStatus, status, 1);
+            add(assetsByDepartment, department, 1);
+        });
+    }
+
+    public void recordAssetChanged(String oldStatus, String oldDepartment, Asset asset) {
+        String newStatus = asset.getStatus();
+        String newDepartment = asset.getDepartment();
+        if (Objects.equals(oldStatus, newStatus) && Objects.equals(oldDepartment, newDepartment)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            move(assetsByStatus, oldStatus, newStatus);
+            move(assetsByDepartment, oldDepartment, newDepartment);
+        });
+    }
+
+    public void recordAuditCreated(Audit audit) {
+        DashboardActivity activity = activity(EVENT_CAPTURED, audit, audit.getAuditDate());
+        boolean open = audit.getCompletedAt() == null;
+        AfterCommit.run(() -> {
+            add(auditsByStatus, activity.status(), 1);
+            add(auditsByAuditor, activity.auditorName(), 1);
+            if (open) {
+                openAudits.incrementAndGet();
+            }
+            addActivity(activity);
+        });
+    }
+
+    public void recordAuditCompleted(String oldStatus, String oldCondition, boolean wasOpen, Audit audit) {
+        DashboardActivity activity = activity(EVENT_COMPLETED, audit, audit.getCompletedAt());
+        int issueDelta = (isIssue(audit.getCondition()) ? 1 : 0) - (isIssue(oldCondition) ? 1 : 0);
+        AfterCommit.run(() -> {
+            move(auditsByStatus, oldStatus, activity.status());
+            if (wasOpen) {
+                openAudits.decrementAndGet();
+            }
+            issuesFound.addAndGet(issueDelta);
+            addActivity(activity);
+        });
+    }
+
+    private void loadRecentActivity() {
+        PageRequest page = PageRequest.of(0, recentActivityLimit);
+        List<DashboardActivity> activity = new ArrayList<>();
+        for (AuditSummary audit : auditRepository.findFirstPage(page)) {
+            activity.add(activity(EVENT_CAPTURED, audit, audit.getAuditDate()));
+        }
+        for (AuditSummary audit : auditRepository.findRecentlyCompleted(page)) {
+            activity.add(activity(EVENT_COMPLETED, audit, audit.getCompletedAt()));
+        }
+        activity.sort(Comparator.comparing(DashboardActivity::at).reversed());
+        synchronized (recentActivity) {
+            recentActivity.clear();
+            activity.stream().limit(recentActivityLimit).forEach(recentActivity::addLast);
+        }
+    }
+
+    private void addActivity(DashboardActivity activity) {
+        synchronized (recentActivity) {
+            recentActivity.addFirst(activity);
+            while (recentActivity.size() > recentActivityLimit) {
+                recentActivity.removeLast();
+            }
+        }
+    }
+
+    private void add(Map<String, AtomicLong> counters, String key, long delta) {
+        lock.readLock().lock();
+        try {
+            counters.computeIfAbsent(key != null ? key : UNKNOWN, k -> new AtomicLong()).addAndGet(delta);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void move(Map<String, AtomicLong> counters, String from, String to) {
+        if (!Objects.equals(from, to)) {
+            add(counters, from, -1);
+            add(counters, to, 1);
+        }
+    }
+
+    private static boolean isIssue(String condition) {
+        return condition != null && ISSUE_CONDITIONS.contains(condition);
+    }
+
+    private static void load(Map<String, AtomicLong> counters, List<GroupCount> rows) {
+        counters.clear();
+        for (GroupCount row : rows) {
+            counters.computeIfAbsent(row.getLabel() != null ? row.getLabel() : UNKNOWN, k -> new AtomicLong())
+                    .addAndGet(row.getTotal());
+        }
+    }
+
+    private static long sum(Map<String, AtomicLong> counters) {
+        return counters.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    // Largest groups first; groups that have dropped to zero are left out
+    private static Map<String, Long> snapshot(Map<String, AtomicLong> counters) {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        counters.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().get()))
+                .filter(e -> e.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEachOrdered(e -> snapshot.put(e.getKey(), e.getValue()));
+        return snapshot;
+    }
+
+    private static DashboardActivity activity(String event, Audit audit, LocalDateTime at) {
+        return new DashboardActivity(event, audit.getId(), audit.getAsset() != null ? audit.getAsset().getId() : null,
+                audit.getDeviceNumber(), audit.getDepartment(), audit.getAuditorName(), audit.getStatus(), at);
+    }
+
+    private static DashboardActivity activity(String event, AuditSummary audit, LocalDateTime at) {
+        return new DashboardActivity(event, audit.getId(), audit.getAssetId(), audit.getDeviceNumber(),
+                audit.getDepartment(), audit.getAuditorName(), audit.getStatus(), at);
+    }
+}
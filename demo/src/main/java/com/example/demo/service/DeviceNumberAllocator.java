@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hands out device numbers in the form ASSET-YYYY-NNNNN. Each year has its own database
+ * sequence that advances by a whole block per call; a node caches its current block and
+ * serves numbers from it with a single atomic increment, so only block refills touch the
+ * database. Numbers left in a node's block when it stops are skipped, never reused.
+ */
+@Service
+@Slf4j
+public class DeviceNumberAllocator {
+    
+    public static final Pattern DEVICE_NUMBER = Pattern.compile("ASSET-\\d{4}-\\d{5,}");
+    
+    // Any number the sequences could reach, matching how a new year's sequence is seeded
+    private static final Pattern ASSIGNED_NUMBER = Pattern.compile("ASSET-(\\d{4})-(\\d{1,18})");
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate outsideTransaction;
+    private final int blockSize;
+    private final ConcurrentHashMap<Integer, Block> blocks = new ConcurrentHashMap<>();
+    // Increment of each year's sequence as created, which may predate a block size change
+    private final ConcurrentHashMap<Integer, Long> sequenceIncrements = new ConcurrentHashMap<>();
+    private final Lock refillLock = new ReentrantLock();
+
+    public DeviceNumberAllocator(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${asset.device-number.block-size:50}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Sequence DDL commits implicitly on H2, so it must not run on a caller's transaction
+        this.outsideTransaction = new TransactionTemplate(transactionManager);
+        this.outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.blockSize = blockSize;
+    }
+
+    public String allocate() {
+        return allocate(LocalDate.now().getYear());
+    }
+    
+    public String allocate(int year) {
+        while (true) {
+            Block block = blocks.get(year);
+            if (block != null) {
+                long value = block.next().getAndIncrement();
+                if (value <= block.last()) {
+                    return String.format("ASSET-%04d-%05d", year, value);
+                }
+            }
+            refill(year, block);
+        }
+    }
+    
+    private void refill(int year, Block exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may have refilled while this one waited
+            if (blocks.get(year) != exhausted) {
+                return;
+            }
+            Block block = outsideTransaction.execute(status -> reserveBlock(year));
+            blocks.put(year, block);
+            log.debug("Reserved device numbers {}-{} for {}", block.next().get(), block.last(), year);
+        } finally {
+            refillLock.unlock();
+        }
+    }
+    
+    /**
+     * Moves numbering past device numbers that were assigned elsewhere, e.g. by an import, so
+     * later allocations never hand them out again. Other formats are ignored.
+     */
+    public void reserveThrough(Collection<String> deviceNumbers) {
+        Map<Integer, Long> highest = new HashMap<>();
+        for (String deviceNumber : deviceNumbers) {
+            Matcher matcher = deviceNumber == null ? null : ASSIGNED_NUMBER.matcher(deviceNumber);
+            if (matcher != null && matcher.matches()) {
+                highest.merge(Integer.parseInt(matcher.group(1)), Long.parseLong(matcher.group(2)), Math::max);
+            }
+        }
+        highest.forEach(this::reserveThrough);
+    }
+    
+    private void reserveThrough(int year, long number) {
+        refillLock.lock();
+        try {
+            outsideTransaction.executeWithoutResult(status -> advanceSequence(year, number));
+            // Numbers left in this node's block up to the reserved one are skipped
+            Block block = blocks.get(year);
+            if (block != null) {
+                block.next().accumulateAndGet(number + 1, Math::max);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+    
+    private void advanceSequence(int year, long number) {
+        String sequence = ensureSequence(year);
+        Long next = jdbcTemplate.queryForObject(
+                "SELECT CAST(BASE_VALUE AS BIGINT) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                Long.class, sequence.toUpperCase());
+        if (next != null && next <= number) {
+            jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (number + 1));
+            log.info("Advanced {} past imported device number {}", sequence, number);
+        }
+    }
+    
+    private Block reserveBlock(int year) {
+        String sequence = ensureSequence(year);
+        long first = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+        return new Block(first + sequenceIncrements.get(year) - 1, new AtomicLong(first));
+    }
+    
+    private String ensureSequence(int year) {
+        String sequence = "device_number_seq_" + year;
+        if (!sequenceIncrements.containsKey(year)) {
+            // Start after numbers already in use for the year, e.g. from imports or earlier releases
+            Long highest = jdbcTemplate.queryForObject(
+                    "SELECT MAX(CAST(SUBSTRING(device_number, 12) AS BIGINT)) FROM assets " +
+                    "WHERE REGEXP_LIKE(device_number, ?)", Long.class, "^ASSET-" + year + "-[0-9]+$");
+            long start = (highest != null ? highest : 0) + 1;
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence +
+                    " START WITH " + start + " INCREMENT BY " + blockSize);
+            Long increment = jdbcTemplate.queryForObject(
+                    "SELECT CAST(INCREMENT AS BIGINT) FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                    Long.class, sequence.toUpperCase());
+            sequenceIncrements.put(year, increment);
+        }
+        return sequence;
+    }
+    
+    private record Block(long last, AtomicLong next) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.service;
+
+import com.example.demo.config.BoundedCacheRegionFactory;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Service
+public class EntityCacheService {
+    
+    private final EntityManagerFactory entityManagerFactory;
+
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+    
+    // Per-region counts from the second-level and query cache, with the hit ratio across those regions.
+    // The update-timestamps region is reported on its own and left out of the totals
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory();
+        if (!(regionFactory instanceof BoundedCacheRegionFactory boundedCache)) {
+            stats.put("enabled", false);
+            return stats;
+        }
+        
+        Map<String, Map<String, Object>> regions = boundedCache.getStats();
+        Map<String, Object> timestamps = regions.remove(boundedCache.getTimestampsRegionName());
+        long hits = 0;
+        long misses = 0;
+        for (Map<String, Object> region : regions.values()) {
+            hits += (Long) region.get("hits");
+            misses += (Long) region.get("misses");
+        }
+        stats.put("enabled", true);
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("regions", regions);
+        if (timestamps != null) {
+            stats.put("updateTimestamps", timestamps);
+        }
+        return stats;
+    }
+}
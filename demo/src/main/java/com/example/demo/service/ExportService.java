@@ -0,0 +1,232 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ExportQuery;
+import com.example.demo.entity.Asset;
+import com.example.demo.entity.Audit;
+import com.example.demo.service.ExportWriter.Column;
+import com.example.demo.service.ExportWriter.ColumnType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams assets or audits to CSV, NDJSON or the columnar format through a forward-only
+ * cursor. Rows are read with a JDBC fetch size and the persistence context is cleared every
+ * {@code export.clear-every} rows, so memory stays flat regardless of table size.
+ */
+@Service
+@Slf4j
+public class ExportService {
+    
+    public static final String DATASET_ASSETS = "assets";
+    public static final String DATASET_AUDITS = "audits";
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+    public static final String FORMAT_COLUMNAR = "columnar";
+    
+    private static final Map<String, Field<Asset>> ASSET_FIELDS = new LinkedHashMap<>();
+    private static final Map<String, Field<Audit>> AUDIT_FIELDS = new LinkedHashMap<>();
+    
+    static {
+        assetField("id", ColumnType.LONG, Asset::getId);
+        assetField("deviceNumber", ColumnType.STRING, Asset::getDeviceNumber);
+        assetField("deviceName", ColumnType.STRING, Asset::getDeviceName);
+        assetField("department", ColumnType.STRING, Asset::getDepartment);
+        assetField("location", ColumnType.STRING, Asset::getLocation);
+        assetField("latitude", ColumnType.DOUBLE, Asset::getLatitude);
+        assetField("longitude", ColumnType.DOUBLE, Asset::getLongitude);
+        assetField("barcode", ColumnType.STRING, Asset::getBarcode);
+        assetField("serialNumber", ColumnType.STRING, Asset::getSerialNumber);
+        assetField("model", ColumnType.STRING, Asset::getModel);
+        assetField("manufacturer", ColumnType.STRING, Asset::getManufacturer);
+        assetField("status", ColumnType.STRING, Asset::getStatus);
+        assetField("imagePath", ColumnType.STRING, Asset::getImagePath);
+        assetField("createdAt", ColumnType.TIMESTAMP, Asset::getCreatedAt);
+        assetField("lastAudited", ColumnType.TIMESTAMP, Asset::getLastAudited);
+        assetField("aiExtractedInfo", ColumnType.STRING, Asset::getAiExtractedInfo);
+        
+        auditField("id", ColumnType.LONG, Audit::getId);
+        // Reading the id from the lazy proxy does not load the asset
+        auditField("assetId", ColumnType.LONG, audit -> audit.getAsset().getId());
+        auditField("deviceNumber", ColumnType.STRING, Audit::getDeviceNumber);
+        auditField("auditType", ColumnType.STRING, Audit::getAuditType);
+        auditField("auditorName", ColumnType.STRING, Audit::getAuditorName);
+        auditField("auditLocation", ColumnType.STRING, Audit::getAuditLocation);
+        auditField("auditLatitude", ColumnType.DOUBLE, Audit::getAuditLatitude);
+        auditField("auditLongitude", ColumnType.DOUBLE, Audit::getAuditLongitude);
+        auditField("condition", ColumnType.STRING, Audit::getCondition);
+        auditField("status", ColumnType.STRING, Audit::getStatus);
+        auditField("department", ColumnType.STRING, Audit::getDepartment);
+        auditField("evidenceImagePath", ColumnType.STRING, Audit::getEvidenceImagePath);
+        auditField("auditDate", ColumnType.TIMESTAMP, Audit::getAuditDate);
+        auditField("completedAt", ColumnType.TIMESTAMP, Audit::getCompletedAt);
+        auditField("notes", ColumnType.STRING, Audit::getNotes);
+        auditField("aiAnalysisResult", ColumnType.STRING, Audit::getAiAnalysisResult);
+    }
+    
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${export.fetch-size:500}")
+    private int fetchSize;
+    
+    @Value("${export.clear-every:1000}")
+    private int clearEvery;
+
+    public ExportService(EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+    
+    // Rejects unknown datasets and formats before any response bytes are committed
+    public void validate(ExportQuery query) {
+        if (!DATASET_ASSETS.equals(query.dataset()) && !DATASET_AUDITS.equals(query.dataset())) {
+            throw new IllegalArgumentException("Unknown dataset: " + query.dataset() + ", expected assets or audits");
+        }
+        if (!List.of(FORMAT_CSV, FORMAT_NDJSON, FORMAT_COLUMNAR).contains(query.format())) {
+            throw new IllegalArgumentException("Unknown format: " + query.format() + ", expected csv, ndjson or columnar");
+        }
+        if (query.from() != null && query.to() != null && !query.from().isBefore(query.to())) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+    }
+    
+    public String fileName(ExportQuery query) {
+        String extension = switch (query.format()) {
+            case FORMAT_CSV -> ".csv";
+            case FORMAT_NDJSON -> ".ndjson";
+            default -> ".acol";
+        };
+        return query.dataset() + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + extension
+                + (query.gzip() ? ".gz" : "");
+    }
+    
+    /** Writes every matching row to {@code out} and returns the row count. {@code out} is not closed. */
+    public long export(ExportQuery query, OutputStream out) throws IOException {
+        validate(query);
+        long started = System.currentTimeMillis();
+        GZIPOutputStream gzip = query.gzip() ? new GZIPOutputStream(out, 64 * 1024) : null;
+        OutputStream target = gzip != null ? gzip : out;
+        
+        long rows;
+        try {
+            rows = DATASET_ASSETS.equals(query.dataset())
+                    ? exportRows(query, Asset.class, "createdAt", ASSET_FIELDS, target)
+                    : exportRows(query, Audit.class, "auditDate", AUDIT_FIELDS, target);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (gzip != null) {
+            gzip.finish();
+        }
+        out.flush();
+        
+        log.info("Exported {} {} as {} in {} ms", rows, query.dataset(), query.format(),
+                System.currentTimeMillis() - started);
+        return rows;
+    }
+    
+    private <T> long exportRows(ExportQuery query, Class<T> entityType, String dateField,
+                                Map<String, Field<T>> fields, OutputStream out) {
+        List<Column> columns = fields.values().stream().map(Field::column).toList();
+        List<Function<T, Object>> values = fields.values().stream().map(Field::value).toList();
+        
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<T> rows = buildQuery(query, entityType, dateField).getResultStream()) {
+                ExportWriter writer = ExportWriter.create(query.format(), columns, out, objectMapper.getFactory());
+                long count = 0;
+                for (T row : (Iterable<T>) rows::iterator) {
+                    Object[] record = new Object[values.size()];
+                    for (int i = 0; i < record.length; i++) {
+                        record[i] = values.get(i).apply(row);
+                    }
+                    writer.writeRow(record);
+                    
+                    if (++count % clearEvery == 0) {
+                        entityManager.clear();
+                    }
+                }
+                writer.finish();
+                return count;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+    private <T> TypedQuery<T> buildQuery(ExportQuery query, Class<T> entityType, String dateField) {
+        StringBuilder jpql = new StringBuilder("SELECT e FROM ").append(entityType.getSimpleName()).append(" e");
+        List<String> conditions = new ArrayList<>();
+        if (query.department() != null) {
+            conditions.add("e.department = :department");
+        }
+        if (query.status() != null) {
+            conditions.add("e.status = :status");
+        }
+        if (query.from() != null) {
+            conditions.add("e." + dateField + " >= :from");
+        }
+        if (query.to() != null) {
+            conditions.add("e." + dateField + " < :to");
+        }
+        if (!conditions.isEmpty()) {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        jpql.append(" ORDER BY e.id");
+        
+        // A full-table scan must not churn the bounded second-level regions
+        TypedQuery<T> typedQuery = entityManager.createQuery(jpql.toString(), entityType)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHE_MODE, CacheMode.IGNORE);
+        if (query.department() != null) {
+            typedQuery.setParameter("department", query.department());
+        }
+        if (query.status() != null) {
+            typedQuery.setParameter("status", query.status());
+        }
+        if (query.from() != null) {
+            typedQuery.setParameter("from", query.from());
+        }
+        if (query.to() != null) {
+            typedQuery.setParameter("to", query.to());
+        }
+        return typedQuery;
+    }
+    
+    private static void assetField(String name, ColumnType type, Function<Asset, Object> value) {
+        ASSET_FIELDS.put(name, new Field<>(new Column(name, type), value));
+    }
+    
+    private static void auditField(String name, ColumnType type, Function<Audit, Object> value) {
+        AUDIT_FIELDS.put(name, new Field<>(new Column(name, type), value));
+    }
+    
+    private record Field<T>(Column column, Function<T, Object> value) {
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes export rows one at a time. Implementations keep at most a bounded amount of data
+ * buffered, so an export runs in constant memory whatever the table size.
+ */
+interface ExportWriter {
+
+    enum ColumnType { STRING, LONG, DOUBLE, TIMESTAMP }
+
+    record Column(String name, ColumnType type) {
+    }
+
+    void writeRow(Object[] values) throws IOException;
+
+    // Flushes buffered rows and trailers; the underlying stream is left open
+    void finish() throws IOException;
+
+    static ExportWriter create(String format, List<Column> columns, OutputStream out, JsonFactory jsonFactory)
+            throws IOException {
+        return switch (format) {
+            case ExportService.FORMAT_CSV -> new CsvExportWriter(columns, out);
+            case ExportService.FORMAT_NDJSON -> new NdjsonExportWriter(columns, out, jsonFactory);
+            case ExportService.FORMAT_COLUMNAR -> new ColumnarExportWriter(columns, out);
+            default -> throw new IllegalArgumentException("Unsupported export format: " + format);
+        };
+    }
+
+    final class CsvExportWriter implements ExportWriter {
+        private final Writer writer;
+
+        CsvExportWriter(List<Column> columns, OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(columns.get(i).name());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    writeField(values[i].toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!needsQuotes) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    final class NdjsonExportWriter implements ExportWriter {
+        private final List<Column> columns;
+        private final JsonGenerator generator;
+
+        NdjsonExportWriter(List<Column> columns, OutputStream out, JsonFactory jsonFactory) throws IOException {
+            this.columns = columns;
+            this.generator = jsonFactory.createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by the newline written after each one
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                generator.writeFieldName(columns.get(i).name());
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof Double number) {
+                    generator.writeNumber(number);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index over asset coordinates. The globe is cut into square cells a fixed
+ * number of degrees wide; a radius or bounding-box query only visits the cells the area
+ * overlaps, then checks the points in them exactly. Each cell keeps its points in parallel
+ * primitive arrays, so a million assets cost a few tens of megabytes.
+ */
+@Component
+public class GeoIndex {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    private final double cellDegrees;
+    private final int lonCells;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    private final Map<Long, Position> positions = new HashMap<>();
+    // While a rebuild loads, the ids live updates have written since it started; its older
+    // snapshot must not move them back or bring back removed points
+    private Set<Long> updatedDuringRebuild;
+
+    public GeoIndex(@Value("${geo.cell-size-meters:250}") double cellSizeMeters) {
+        this.cellDegrees = cellSizeMeters / METERS_PER_DEGREE;
+        this.lonCells = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    public void put(long id, double latitude, double longitude) {
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(id);
+            }
+            putLocked(id, latitude, longitude);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(id);
+            }
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Empties the index for a rebuild; live updates keep applying while it loads
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            positions.clear();
+            updatedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds a point read by the rebuild, unless a live update has already written it
+    public void putFromRebuild(long id, double latitude, double longitude) {
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild == null || !updatedDuringRebuild.contains(id)) {
+                putLocked(id, latitude, longitude);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return positions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Position> position(long id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(positions.get(id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Points within radiusMeters of the given point, nearest first. */
+    public List<GeoHit> nearby(double latitude, double longitude, double radiusMeters, int limit) {
+        double latSpan = radiusMeters / METERS_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        // Near the poles the circle spans every longitude
+        double lonSpan = cosLat * 180 > latSpan ? latSpan / cosLat : 180;
+
+        List<GeoHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachCell(latitude - latSpan, latitude + latSpan, longitude - lonSpan, longitude + lonSpan, cell -> {
+                for (int i = 0; i < cell.size; i++) {
+                    double distance = distanceMeters(latitude, longitude, cell.latitudes[i], cell.longitudes[i]);
+                    if (distance <= radiusMeters) {
+                        hits.add(new GeoHit(cell.ids[i], cell.latitudes[i], cell.longitudes[i], distance));
+                    }
+                }
+                return true;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.sort(Comparator.comparingDouble(GeoHit::distanceMeters));
+        return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+    }
+
+    /** Up to limit points inside the box, in no particular order. Distances are measured from its center. */
+    public List<GeoHit> within(double minLatitude, double minLongitude,
+                               double maxLatitude, double maxLongitude, int limit) {
+        double centerLat = (minLatitude + maxLatitude) / 2;
+        double centerLon = (minLongitude + maxLongitude) / 2;
+        List<GeoHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            forEachCell(minLatitude, maxLatitude, minLongitude, maxLongitude, cell -> {
+                for (int i = 0; i < cell.size; i++) {
+                    double lat = cell.latitudes[i];
+                    double lon = cell.longitudes[i];
+                    if (lat >= minLatitude && lat <= maxLatitude && lon >= minLongitude && lon <= maxLongitude) {
+                        hits.add(new GeoHit(cell.ids[i], lat, lon, distanceMeters(centerLat, centerLon, lat, lon)));
+                        if (hits.size() >= limit) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits;
+    }
+
+    // Haversine distance
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Visits occupied cells overlapping the range until the visitor returns false.
+    // Longitudes past +/-180 wrap around, so a circle crossing the antimeridian finds both sides
+    private void forEachCell(double minLat, double maxLat, double minLon, double maxLon, CellVisitor visitor) {
+        int fromRow = latRow(Math.max(minLat, -90));
+        int toRow = latRow(Math.min(maxLat, 90));
+        long fromCol = (long) Math.floor((minLon + 180) / cellDegrees);
+        long toCol = Math.min((long) Math.floor((maxLon + 180) / cellDegrees), fromCol + lonCells - 1);
+
+        // Wide areas have more grid cells than occupied ones, so walk the occupied cells instead
+        long gridCells = (long) (toRow - fromRow + 1) * (toCol - fromCol + 1);
+        if (gridCells > cells.size()) {
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                int row = (int) (entry.getKey() / lonCells);
+                int col = (int) (entry.getKey() % lonCells);
+                if (row >= fromRow && row <= toRow && columnInRange(col, fromCol, toCol)
+                        && !visitor.visit(entry.getValue())) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        for (int row = fromRow; row <= toRow; row++) {
+            for (long col = fromCol; col <= toCol; col++) {
+                Cell cell = cells.get(key(row, (int) Math.floorMod(col, (long) lonCells)));
+                if (cell != null && !visitor.visit(cell)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean columnInRange(int col, long fromCol, long toCol) {
+        return Math.floorMod(col - fromCol, (long) lonCells) <= toCol - fromCol;
+    }
+
+    private void putLocked(long id, double latitude, double longitude) {
+        long cellKey = cellKey(latitude, longitude);
+        removeLocked(id);
+        cells.computeIfAbsent(cellKey, k -> new Cell()).add(id, latitude, longitude);
+        positions.put(id, new Position(cellKey, latitude, longitude));
+    }
+
+    private void removeLocked(long id) {
+        Position existing = positions.remove(id);
+        if (existing != null) {
+            Cell cell = cells.get(existing.cellKey());
+            if (cell != null && cell.remove(id) && cell.size == 0) {
+                cells.remove(existing.cellKey());
+            }
+        }
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return key(latRow(latitude), (int) Math.floorMod((long) Math.floor((longitude + 180) / cellDegrees), (long) lonCells));
+    }
+
+    private int latRow(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private long key(int row, int col) {
+        return (long) row * lonCells + col;
+    }
+
+    @FunctionalInterface
+    private interface CellVisitor {
+        boolean visit(Cell cell);
+    }
+
+    private static final class Cell {
+
+        private long[] ids = new long[4];
+        private double[] latitudes = new double[4];
+        private double[] longitudes = new double[4];
+        private int size;
+
+        void add(long id, double latitude, double longitude) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                latitudes = Arrays.copyOf(latitudes, size * 2);
+                longitudes = Arrays.copyOf(longitudes, size * 2);
+            }
+            ids[size] = id;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        // Moves the last point into the removed slot
+        boolean remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    size--;
+                    ids[i] = ids[size];
+                    latitudes[i] = latitudes[size];
+                    longitudes[i] = longitudes[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public record Position(long cellKey, double latitude, double longitude) {
+    }
+
+    public record GeoHit(long id, double latitude, double longitude, double distanceMeters) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Asset;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+// Keeps GeoIndex in step with asset coordinates once each write commits
+@Component
+public class GeoIndexListener {
+
+    private final GeoIndex geoIndex;
+
+    public GeoIndexListener(GeoIndex geoIndex) {
+        this.geoIndex = geoIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Asset asset) {
+        long id = asset.getId();
+        Double latitude = asset.getLatitude();
+        Double longitude = asset.getLongitude();
+        if (latitude != null && longitude != null) {
+            AfterCommit.run(() -> geoIndex.put(id, latitude, longitude));
+        } else {
+            AfterCommit.run(() -> geoIndex.remove(id));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Asset asset) {
+        long id = asset.getId();
+        AfterCommit.run(() -> geoIndex.remove(id));
+    }
+}
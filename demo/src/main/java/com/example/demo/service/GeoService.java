@@ -0,0 +1,221 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetPosition;
+import com.example.demo.dto.AssetSummary;
+import com.example.demo.dto.AuditSummary;
+import com.example.demo.dto.MisplacedAudit;
+import com.example.demo.dto.NearbyAsset;
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.AuditRepository;
+import com.example.demo.service.GeoIndex.GeoHit;
+import com.example.demo.service.GeoIndex.Position;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class GeoService {
+
+    private final GeoIndex geoIndex;
+    private final AssetRepository assetRepository;
+    private final AuditRepository auditRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @Value("${geo.max-results:500}")
+    private int maxResults;
+
+    @Value("${geo.max-radius-meters:50000}")
+    private double maxRadiusMeters;
+
+    // Set once the startup rebuild has loaded every asset with coordinates
+    private volatile boolean ready;
+
+    public GeoService(GeoIndex geoIndex,
+                      AssetRepository assetRepository,
+                      AuditRepository auditRepository,
+                      PlatformTransactionManager transactionManager) {
+        this.geoIndex = geoIndex;
+        this.assetRepository = assetRepository;
+        this.auditRepository = auditRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread rebuild = new Thread(this::rebuildIndex, "geo-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+
+    public void rebuildIndex() {
+        long started = System.currentTimeMillis();
+        ready = false;
+        geoIndex.beginRebuild();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<AssetPosition> positions = assetRepository.streamPositions()) {
+                    positions.forEach(p -> geoIndex.putFromRebuild(p.getId(), p.getLatitude(), p.getLongitude()));
+                }
+            });
+            ready = true;
+            log.info("Spatial index rebuilt with {} assets in {} ms",
+                    geoIndex.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Spatial index rebuild failed", e);
+        } finally {
+            geoIndex.endRebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<NearbyAsset> findNearby(double latitude, double longitude, double radiusMeters, Integer limit) {
+        checkCoordinates(latitude, longitude);
+        if (!(radiusMeters > 0) || radiusMeters > maxRadiusMeters) {
+            throw new IllegalArgumentException("radius must be between 0 and " + maxRadiusMeters + " meters");
+        }
+        int resultLimit = resolveLimit(limit);
+        if (!ready) {
+            // Until the index has loaded, search the enclosing box in the database and trim it to the
+            // circle. The whole box is ranked by distance before the limit, so the nearest are kept
+            double latSpan = Math.toDegrees(radiusMeters / GeoIndex.EARTH_RADIUS_METERS);
+            double lonSpan = Math.min(180, latSpan / Math.max(Math.cos(Math.toRadians(latitude)), 1e-6));
+            return readOnlyTransaction.execute(status -> {
+                List<NearbyAsset> inRadius = new ArrayList<>();
+                for (double[] range : longitudeRanges(longitude - lonSpan, longitude + lonSpan)) {
+                    try (Stream<AssetSummary> assets = assetRepository.streamSummariesWithin(latitude - latSpan,
+                            range[0], latitude + latSpan, range[1])) {
+                        assets.map(asset -> new NearbyAsset(asset, GeoIndex.distanceMeters(latitude, longitude,
+                                        asset.getLatitude(), asset.getLongitude())))
+                                .filter(nearby -> nearby.distanceMeters() <= radiusMeters)
+                                .forEach(inRadius::add);
+                    }
+                }
+                inRadius.sort((a, b) -> Double.compare(a.distanceMeters(), b.distanceMeters()));
+                return inRadius.size() > resultLimit ? List.copyOf(inRadius.subList(0, resultLimit)) : inRadius;
+            });
+        }
+        return withSummaries(geoIndex.nearby(latitude, longitude, radiusMeters, resultLimit));
+    }
+
+    public List<NearbyAsset> findWithin(double minLatitude, double minLongitude,
+                                        double maxLatitude, double maxLongitude, Integer limit) {
+        checkCoordinates(minLatitude, minLongitude);
+        checkCoordinates(maxLatitude, maxLongitude);
+        if (minLatitude > maxLatitude || minLongitude > maxLongitude) {
+            throw new IllegalArgumentException("The box's minimum corner must be south-west of its maximum corner");
+        }
+        int resultLimit = resolveLimit(limit);
+        if (!ready) {
+            double centerLat = (minLatitude + maxLatitude) / 2;
+            double centerLon = (minLongitude + maxLongitude) / 2;
+            return assetRepository.findSummariesWithin(minLatitude, minLongitude, maxLatitude, maxLongitude,
+                            PageRequest.of(0, resultLimit)).stream()
+                    .map(asset -> new NearbyAsset(asset, GeoIndex.distanceMeters(centerLat, centerLon,
+                            asset.getLatitude(), asset.getLongitude())))
+                    .toList();
+        }
+        return withSummaries(geoIndex.within(minLatitude, minLongitude, maxLatitude, maxLongitude, resultLimit));
+    }
+
+    /**
+     * Audits whose recorded position is more than thresholdMeters from their asset's current
+     * location, newest first. Asset positions come from the spatial index rather than a join.
+     */
+    public List<MisplacedAudit> findMisplacedAudits(double thresholdMeters, Integer limit) {
+        if (!(thresholdMeters > 0)) {
+            throw new IllegalArgumentException("threshold must be a positive number of meters");
+        }
+        if (!ready) {
+            throw new IllegalStateException("The spatial index is still loading");
+        }
+        int resultLimit = resolveLimit(limit);
+        return readOnlyTransaction.execute(status -> {
+            List<MisplacedAudit> misplaced = new ArrayList<>();
+            try (Stream<AuditSummary> audits = auditRepository.streamAllSummaries()) {
+                Iterator<AuditSummary> it = audits.iterator();
+                while (it.hasNext() && misplaced.size() < resultLimit) {
+                    AuditSummary audit = it.next();
+                    if (audit.getAuditLatitude() == null || audit.getAuditLongitude() == null) {
+                        continue;
+                    }
+                    Optional<Position> asset = geoIndex.position(audit.getAssetId());
+                    if (asset.isEmpty()) {
+                        continue;
+                    }
+                    double distance = GeoIndex.distanceMeters(audit.getAuditLatitude(), audit.getAuditLongitude(),
+                            asset.get().latitude(), asset.get().longitude());
+                    if (distance > thresholdMeters) {
+                        misplaced.add(new MisplacedAudit(audit, asset.get().latitude(), asset.get().longitude(), distance));
+                    }
+                }
+            }
+            return misplaced;
+        });
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of("ready", ready, "assets", geoIndex.size());
+    }
+
+    // One primary-key lookup for the hits' list columns, keeping the index's order
+    private List<NearbyAsset> withSummaries(List<GeoHit> hits) {
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, AssetSummary> summaries = assetRepository.findSummariesByIdIn(
+                        hits.stream().map(GeoHit::id).toList()).stream()
+                .collect(Collectors.toMap(AssetSummary::getId, Function.identity()));
+        List<NearbyAsset> results = new ArrayList<>(hits.size());
+        for (GeoHit hit : hits) {
+            AssetSummary summary = summaries.get(hit.id());
+            if (summary != null) {
+                results.add(new NearbyAsset(summary, hit.distanceMeters()));
+            }
+        }
+        return results;
+    }
+
+    private int resolveLimit(Integer limit) {
+        return limit == null || limit <= 0 ? 100 : Math.min(limit, maxResults);
+    }
+
+    // Splits a longitude range that runs past +/-180 into the two ranges on either side of the
+    // antimeridian, as GeoIndex wraps its grid columns
+    private static List<double[]> longitudeRanges(double minLongitude, double maxLongitude) {
+        if (maxLongitude - minLongitude >= 360) {
+            return List.of(new double[]{-180, 180});
+        }
+        if (minLongitude < -180) {
+            return List.of(new double[]{minLongitude + 360, 180}, new double[]{-180, maxLongitude});
+        }
+        if (maxLongitude > 180) {
+            return List.of(new double[]{minLongitude, 180}, new double[]{-180, maxLongitude - 360});
+        }
+        return List.of(new double[]{minLongitude, maxLongitude});
+    }
+    
+    private static void checkCoordinates(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+// Identifies image formats from their leading magic bytes
+public final class ImageFormats {
+
+    private ImageFormats() {
+    }
+
+    public static String detectContentType(byte[] header, String defaultType) {
+        if (startsWith(header, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (startsWith(header, 'B', 'M')) {
+            return "image/bmp";
+        }
+        if (header.length >= 12 && startsWith(header, 'R', 'I', 'F', 'F')
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        return defaultType;
+    }
+
+    public static String extensionFor(String contentType) {
+        return switch (contentType) {
+            case "image/jpeg" -> ".jpg";
+            case "image/png" -> ".png";
+            case "image/gif" -> ".gif";
+            case "image/bmp" -> ".bmp";
+            case "image/webp" -> ".webp";
+            default -> "";
+        };
+    }
+
+    private static boolean startsWith(byte[] data, int... prefix) {
+        if (data.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if ((data[i] & 0xFF) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
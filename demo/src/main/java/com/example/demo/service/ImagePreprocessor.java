@@ -0,0 +1,53 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+@Service
+@Slf4j
+public class ImagePreprocessor {
+    
+    private final int maxDimension;
+    private final float jpegQuality;
+
+    public ImagePreprocessor(@Value("${vision.ai.image.max-dimension:1024}") int maxDimension,
+                             @Value("${vision.ai.image.jpeg-quality:0.85}") float jpegQuality) {
+        this.maxDimension = maxDimension;
+        this.jpegQuality = jpegQuality;
+    }
+
+    /**
+     * Decodes the photo, shrinks it so its longest side is at most {@code max-dimension}
+     * and re-encodes it as JPEG. Formats ImageIO cannot decode are passed through unchanged
+     * with their sniffed content type.
+     */
+    public PreparedImage prepare(byte[] imageBytes) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            BufferedImage decoded = ImageScaling.decodeSubsampled(input, maxDimension);
+            if (decoded != null) {
+                ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+                ImageScaling.writeJpeg(ImageScaling.resize(decoded, maxDimension), jpegQuality, encoded);
+                String originalType = ImageFormats.detectContentType(imageBytes, null);
+                // Small graphics (e.g. PNG screenshots) can grow when re-encoded; keep whichever is smaller
+                if (originalType != null && encoded.size() >= imageBytes.length) {
+                    return new PreparedImage(imageBytes, originalType);
+                }
+                return new PreparedImage(encoded.toByteArray(), "image/jpeg");
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not preprocess image, sending original bytes", e);
+        }
+        return new PreparedImage(imageBytes, ImageFormats.detectContentType(imageBytes, "image/jpeg"));
+    }
+    
+    public record PreparedImage(byte[] bytes, String contentType) {
+    }
+}
@@ -2,32 +2,40 @@ package com.example.demo.service;
 
 import com.example.demo.entity.Image;
 import com.example.demo.repository.ImageRepository;
+import com.example.demo.service.ImageStorage.StoredImage;
+import com.example.demo.service.RenditionService.Rendition;
+import com.example.demo.service.RenditionService.RenditionFile;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
 @Service
 @Slf4j
 public class ImageService {
     
     private final ImageRepository imageRepository;
-    
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    private final RenditionService renditionService;
+    private final ImageStorage imageStorage;
+    private final SearchService searchService;
 
-    public ImageService(ImageRepository imageRepository) {
+    public ImageService(ImageRepository imageRepository,
+                        RenditionService renditionService,
+                        ImageStorage imageStorage,
+                        SearchService searchService) {
         this.imageRepository = imageRepository;
+        this.renditionService = renditionService;
+        this.imageStorage = imageStorage;
+        this.searchService = searchService;
     }
 
     public Image uploadImage(MultipartFile file, String description) throws IOException {
@@ -36,34 +44,23 @@ public class ImageService {
             throw new IllegalArgumentException("File is empty");
         }
         
-        // Validate image type
-        String contentType = file.getContentType();
-        if (contentType == null || !contentType.startsWith("image/")) {
-            throw new IllegalArgumentException("File must be an image");
-        }
-        
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        try (InputStream input = file.getInputStream()) {
+            return uploadImage(input, file.getOriginalFilename(), description);
         }
-        
-        // Generate unique filename
-        String originalFileName = file.getOriginalFilename();
-        String fileExtension = getFileExtension(originalFileName);
-        String storedFileName = UUID.randomUUID().toString() + fileExtension;
-        
-        // Save file to disk
-        Path filePath = uploadPath.resolve(storedFileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    public Image uploadImage(InputStream input, String originalFileName, String description) throws IOException {
+        // Stream to disk, validating the image type from its magic bytes rather than the client's Content-Type
+        StoredImage stored = imageStorage.store(input);
         
         // Save image info to database
         Image image = new Image();
-        image.setOriginalFileName(originalFileName);
-        image.setStoredFileName(storedFileName);
-        image.setFilePath(filePath.toString());
-        image.setFileSize(file.getSize());
-        image.setContentType(contentType);
+        image.setOriginalFileName(originalFileName != null ? originalFileName : stored.path().getFileName().toString());
+        image.setStoredFileName(stored.path().getFileName().toString());
+        image.setFilePath(stored.path().toString());
+        image.setFileSize(stored.size());
+        image.setContentType(stored.contentType());
+        image.setContentHash(stored.contentHash());
         image.setDescription(description);
         image.setUploadedAt(LocalDateTime.now());
         
@@ -75,7 +72,7 @@ public class ImageService {
     }
     
     public Optional<Image> getImageByStoredFileName(String storedFileName) {
-        return imageRepository.findByStoredFileName(storedFileName);
+        return imageRepository.findFirstByStoredFileName(storedFileName);
     }
     
     public List<Image> getAllImages() {
@@ -83,7 +80,8 @@ public class ImageService {
     }
     
     public List<Image> searchImagesByFileName(String fileName) {
-        return imageRepository.findByOriginalFileNameContainingIgnoreCase(fileName);
+        // Served from the search index instead of a LIKE '%x%' scan over the images table
+        return searchService.searchImages(fileName);
     }
     
     public List<Image> getImagesByContentType(String contentType) {
@@ -95,10 +93,14 @@ public class ImageService {
         if (imageOpt.isPresent()) {
             Image image = imageOpt.get();
             
-            // Delete file from disk
-            Path filePath = Paths.get(image.getFilePath());
-            if (Files.exists(filePath)) {
-                Files.delete(filePath);
+            // Shared blobs are only removed from disk once nothing references them
+            if (!imageStorage.release(image.getFilePath())) {
+                // Uploads from before deduplication belong to this row alone
+                Path filePath = Paths.get(image.getFilePath());
+                if (Files.exists(filePath)) {
+                    Files.delete(filePath);
+                }
+                renditionService.deleteRenditions(filePath);
             }
             
             // Delete from database
@@ -106,22 +108,15 @@ public class ImageService {
         }
     }
     
-    public byte[] getImageBytes(Long id) throws IOException {
-        Optional<Image> imageOpt = imageRepository.findById(id);
-        if (imageOpt.isPresent()) {
-            Image image = imageOpt.get();
-            Path filePath = Paths.get(image.getFilePath());
-            if (Files.exists(filePath)) {
-                return Files.readAllBytes(filePath);
-            }
+    public Path getImageFile(Image image) throws IOException {
+        Path filePath = Paths.get(image.getFilePath());
+        if (!Files.isReadable(filePath)) {
+            throw new NoSuchFileException(image.getFilePath(), null, "Image file not found");
         }
-        throw new IOException("Image file not found");
+        return filePath;
     }
     
-    private String getFileExtension(String fileName) {
-        if (fileName == null || !fileName.contains(".")) {
-            return "";
-        }
-        return fileName.substring(fileName.lastIndexOf("."));
+    public RenditionFile getImageRendition(Image image, Rendition rendition) throws IOException {
+        return renditionService.getRendition(getImageFile(image), image.getContentType(), rendition);
     }
 }
@@ -0,0 +1,229 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.ImageBlob;
+import com.example.demo.repository.ImageBlobRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed image store. Each distinct file is kept once under
+ * {@code uploads/blobs/<first two hex digits>/<sha256>.<ext>} and reference counted in
+ * {@code image_blobs}; the file is deleted when its last reference is released.
+ */
+@Service
+@Slf4j
+public class ImageStorage {
+    
+    private static final int HEADER_LENGTH = 16;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+    private static final Pattern BLOB_FILE_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z]+)?");
+    
+    private final ImageBlobRepository imageBlobRepository;
+    private final RenditionService renditionService;
+    private final TransactionTemplate transactionTemplate;
+    // For the after-commit file check, which must not read through the finished caller's transaction
+    private final TransactionTemplate newTransaction;
+    private final long maxFileSize;
+    // Serializes reference count changes for the same content within this node. Locks rather than
+    // monitors, since the holder does file and JDBC I/O and a virtual thread must not pin its carrier
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    public ImageStorage(ImageBlobRepository imageBlobRepository,
+                        RenditionService renditionService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${spring.servlet.multipart.max-file-size:10MB}") DataSize maxFileSize) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.renditionService = renditionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxFileSize = maxFileSize.toBytes();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Copies an upload into the store in a single pass, validating the magic bytes and
+     * computing its SHA-256 and size along the way. Identical content is stored once; the
+     * caller receives one reference to the shared blob.
+     */
+    public StoredImage store(InputStream input) throws IOException {
+        byte[] header = input.readNBytes(HEADER_LENGTH);
+        String contentType = ImageFormats.detectContentType(header, null);
+        if (contentType == null) {
+            throw new IllegalArgumentException("File must be an image");
+        }
+        
+        Path blobsDir = Paths.get(uploadDir, "blobs");
+        Files.createDirectories(blobsDir);
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(blobsDir, "upload", ".tmp");
+        try {
+            long size = header.length;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                digest.update(header);
+                out.write(header);
+                
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxFileSize) {
+                        throw new IllegalArgumentException("File exceeds maximum size of " + maxFileSize + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            Path target = blobPath(contentHash + ImageFormats.extensionFor(contentType));
+            long fileSize = size;
+            Lock lock = lockFor(contentHash);
+            lock.lock();
+            try {
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (imageBlobRepository.incrementRefCount(contentHash) == 0) {
+                        imageBlobRepository.save(new ImageBlob(contentHash, target.toString(), fileSize,
+                                contentType, 1, LocalDateTime.now()));
+                    }
+                });
+            } finally {
+                lock.unlock();
+            }
+            return new StoredImage(target, contentHash, fileSize, contentType);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    // Adds a reference for another row that points at the same stored file
+    public void retain(String filePath) {
+        imageBlobRepository.findByFilePath(filePath).ifPresent(blob -> {
+            Lock lock = lockFor(blob.getContentHash());
+            lock.lock();
+            try {
+                transactionTemplate.executeWithoutResult(
+                        status -> imageBlobRepository.incrementRefCount(blob.getContentHash()));
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+    
+    /**
+     * Drops one reference and deletes the file and its renditions once none remain.
+     * Returns false for files written before the store existed, which are not reference counted.
+     */
+    public boolean release(String filePath) {
+        Optional<ImageBlob> blobOpt = imageBlobRepository.findByFilePath(filePath);
+        if (blobOpt.isEmpty()) {
+            return false;
+        }
+        
+        String contentHash = blobOpt.get().getContentHash();
+        Lock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            Boolean unreferenced = transactionTemplate.execute(status -> {
+                imageBlobRepository.decrementRefCount(contentHash);
+                Optional<ImageBlob> blob = imageBlobRepository.findById(contentHash);
+                if (blob.isPresent() && blob.get().getRefCount() <= 0) {
+                    imageBlobRepository.delete(blob.get());
+                    return true;
+                }
+                return false;
+            });
+            
+            if (Boolean.TRUE.equals(unreferenced)) {
+                // Inside a caller's transaction the count only drops for good on commit
+                AfterCommit.run(() -> deleteIfStillUnreferenced(contentHash, filePath));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+    
+    // Runs after commit, once the stripe lock taken by release may be gone: a store of the same content
+    // in between finds the file still in place and records a new blob, which then keeps the file
+    private void deleteIfStillUnreferenced(String contentHash, String filePath) {
+        Lock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            Boolean recreated = newTransaction.execute(status -> imageBlobRepository.existsById(contentHash));
+            if (!Boolean.TRUE.equals(recreated)) {
+                deleteBlobFile(filePath);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void deleteBlobFile(String filePath) {
+        try {
+            Path path = Paths.get(filePath);
+            Files.deleteIfExists(path);
+            renditionService.deleteRenditions(path);
+        } catch (IOException e) {
+            log.warn("Could not delete unreferenced blob {}", filePath, e);
+        }
+    }
+    
+    // Maps a bare blob file name, as used in image URLs, back to its location in the store
+    public Optional<Path> resolveBlobFile(String fileName) {
+        if (!BLOB_FILE_NAME.matcher(fileName).matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(blobPath(fileName));
+    }
+    
+    private Path blobPath(String fileName) {
+        return Paths.get(uploadDir, "blobs", fileName.substring(0, 2), fileName);
+    }
+    
+    private Lock lockFor(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), LOCK_STRIPES)];
+    }
+    
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    public record StoredImage(Path path, String contentHash, long size, String contentType) {
+    }
+}
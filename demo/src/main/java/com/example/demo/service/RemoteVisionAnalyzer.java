@@ -0,0 +1,182 @@
+package com.example.demo.service;
+
+import com.example.demo.service.ImagePreprocessor.PreparedImage;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Sends photos to a chat-completions vision model and reads the analysis out of its reply
+@Component
+@Slf4j
+public class RemoteVisionAnalyzer implements AssetImageAnalyzer {
+    
+    public static final String NAME = "remote";
+    
+    static final String ANALYSIS_FIELDS = """
+            {
+                "deviceNumber": "Asset tag number exactly as printed on a visible label (format: ASSET-YYYY-NNNNN), or null",
+                "department": "Department name if visible",
+                "barcode": "Barcode/QR code content if readable",
+                "serialNumber": "Serial number if visible",
+                "model": "Model number if visible",
+                "manufacturer": "Manufacturer name if visible",
+                "location": "Location description from image",
+                "condition": "Physical condition (Good/Fair/Poor/Damaged)",
+                "notes": "Additional observations"
+            }
+            """;
+    
+    @Value("${vision.ai.api.key:}")
+    private String apiKey;
+    
+    @Value("${vision.ai.api.url:https://api.openai.com/v1/chat/completions}")
+    private String apiUrl;
+    
+    @Value("${vision.ai.model:gpt-4-vision-preview}")
+    private String model;
+    
+    private final VisionApiClient visionApiClient;
+    private final ImagePreprocessor imagePreprocessor;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    public RemoteVisionAnalyzer(VisionApiClient visionApiClient, ImagePreprocessor imagePreprocessor) {
+        this.visionApiClient = visionApiClient;
+        this.imagePreprocessor = imagePreprocessor;
+    }
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return !apiKey.isEmpty();
+    }
+    
+    @Override
+    public String analyze(byte[] imageBytes) throws IOException {
+        // Downscale and re-encode before upload; the model does not need full camera resolution
+        PreparedImage image = imagePreprocessor.prepare(imageBytes);
+        return parseVisionResponse(postChatCompletion(createAssetAnalysisPrompt(), List.of(image)));
+    }
+    
+    @Override
+    public List<String> analyze(List<byte[]> images) throws IOException {
+        if (images.size() == 1) {
+            return List.of(analyze(images.get(0)));
+        }
+        List<PreparedImage> prepared = new ArrayList<>();
+        for (byte[] image : images) {
+            prepared.add(imagePreprocessor.prepare(image));
+        }
+        
+        String content = parseVisionResponse(postChatCompletion(createBatchAnalysisPrompt(images.size()), prepared));
+        
+        // Demultiplex the JSON array back to one analysis per image, in request order
+        JsonNode results = objectMapper.readTree(content);
+        if (results.isArray() && results.size() == images.size()) {
+            List<String> analyses = new ArrayList<>();
+            for (JsonNode result : results) {
+                analyses.add(objectMapper.writeValueAsString(result));
+            }
+            return analyses;
+        }
+        
+        log.warn("Vision AI batch response did not contain {} results, retrying images one by one", images.size());
+        List<String> analyses = new ArrayList<>();
+        for (byte[] image : images) {
+            analyses.add(analyze(image));
+        }
+        return analyses;
+    }
+    
+    private String postChatCompletion(String prompt, List<PreparedImage> images) throws IOException {
+        return visionApiClient.post(apiUrl, apiKey, out -> writeVisionRequest(out, prompt, images));
+    }
+    
+    void writeVisionRequest(OutputStream out, String prompt, List<PreparedImage> images) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.writeStartObject();
+        json.writeStringField("model", model);
+        json.writeNumberField("max_tokens", 1000 * images.size());
+        
+        json.writeArrayFieldStart("messages");
+        json.writeStartObject();
+        json.writeStringField("role", "user");
+        
+        json.writeArrayFieldStart("content");
+        json.writeStartObject();
+        json.writeStringField("type", "text");
+        json.writeStringField("text", prompt);
+        json.writeEndObject();
+        
+        for (PreparedImage image : images) {
+            json.writeStartObject();
+            json.writeStringField("type", "image_url");
+            json.writeObjectFieldStart("image_url");
+            json.writeFieldName("url");
+            json.writeRawValue("\"data:" + image.contentType() + ";base64,");
+            json.flush();
+            // Base64 is encoded straight into the request body instead of into an intermediate String
+            try (OutputStream base64 = Base64.getEncoder().wrap(StreamUtils.nonClosing(out))) {
+                base64.write(image.bytes());
+            }
+            json.writeRaw('"');
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+        json.flush();
+    }
+    
+    private String createAssetAnalysisPrompt() {
+        return """
+            Analyze this asset image and extract the following information in JSON format:
+            """ + ANALYSIS_FIELDS + """
+            
+            If any information is not clearly visible, mark as "Not visible" or make reasonable assumptions.
+            Do not invent a device number; new assets are numbered by the server.
+            """;
+    }
+    
+    private String createBatchAnalysisPrompt(int imageCount) {
+        return """
+            You are given %d asset images. Analyze each image separately and return a JSON array
+            with exactly %d objects, one per image and in the same order as the images.
+            Each object must have the following format:
+            """.formatted(imageCount, imageCount) + ANALYSIS_FIELDS + """
+            
+            If any information is not clearly visible, mark as "Not visible" or make reasonable assumptions.
+            Do not invent device numbers; new assets are numbered by the server.
+            Return only the JSON array.
+            """;
+    }
+    
+    String parseVisionResponse(String responseBody) throws IOException {
+        JsonNode jsonNode = objectMapper.readTree(responseBody);
+        JsonNode choices = jsonNode.get("choices");
+        if (choices != null && choices.isArray() && choices.size() > 0) {
+            JsonNode message = choices.get(0).get("message");
+            if (message != null && message.has("content")) {
+                return message.get("content").asText();
+            }
+        }
+        // Thrown rather than falling back here so a bad response never lands in the cache
+        throw new IOException("Vision AI response has no message content");
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class RenditionService {
+    
+    public enum Rendition {
+        THUMBNAIL("thumbnail", 200),
+        MEDIUM("medium", 800),
+        ORIGINAL("original", 0);
+        
+        private final String name;
+        private final int maxDimension;
+        
+        Rendition(String name, int maxDimension) {
+            this.name = name;
+            this.maxDimension = maxDimension;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public static Optional<Rendition> fromName(String name) {
+            for (Rendition rendition : values()) {
+                if (rendition.name.equalsIgnoreCase(name)) {
+                    return Optional.of(rendition);
+                }
+            }
+            return Optional.empty();
+        }
+    }
+    
+    public record RenditionFile(Path path, String contentType) {
+    }
+    
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+    
+    @Value("${image.rendition.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    /**
+     * Returns the requested rendition of an image, generating it on first request and
+     * caching it under {@code uploads/renditions/<name>/}. Images ImageIO cannot decode
+     * are served as the original.
+     */
+    public RenditionFile getRendition(Path original, String originalContentType, Rendition rendition) throws IOException {
+        if (rendition == Rendition.ORIGINAL) {
+            return new RenditionFile(original, originalContentType);
+        }
+        
+        Path target = renditionPath(original, rendition);
+        if (Files.exists(target)) {
+            return new RenditionFile(target, "image/jpeg");
+        }
+        
+        BufferedImage decoded;
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            decoded = ImageScaling.decodeSubsampled(input, rendition.maxDimension);
+        }
+        if (decoded == null) {
+            log.warn("Cannot decode {}, serving original instead of {} rendition", original, rendition.getName());
+            return new RenditionFile(original, originalContentType);
+        }
+        
+        // Write to a temp file and move it into place so concurrent requests never see a partial rendition
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), "rendition", ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                ImageScaling.writeJpeg(ImageScaling.resize(decoded, rendition.maxDimension), jpegQuality, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return new RenditionFile(target, "image/jpeg");
+    }
+    
+    public void deleteRenditions(Path original) throws IOException {
+        for (Rendition rendition : Rendition.values()) {
+            if (rendition != Rendition.ORIGINAL) {
+                Files.deleteIfExists(renditionPath(original, rendition));
+            }
+        }
+    }
+    
+    private Path renditionPath(Path original, Rendition rendition) {
+        String fileName = original.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String baseName = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return Paths.get(uploadDir, "renditions", rendition.getName(), baseName + ".jpg");
+    }
+}
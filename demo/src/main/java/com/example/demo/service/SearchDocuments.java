@@ -0,0 +1,105 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Asset;
+import com.example.demo.entity.Audit;
+import com.example.demo.entity.Image;
+import com.example.demo.service.SearchIndex.DocKey;
+import com.example.demo.service.SearchIndex.SearchDocument;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Maps entities to what the search index stores for them, with per-field boosts
+final class SearchDocuments {
+
+    static final String ASSET = "asset";
+    static final String AUDIT = "audit";
+    static final String IMAGE = "image";
+
+    private SearchDocuments() {
+    }
+
+    static DocKey keyOf(Object entity) {
+        if (entity instanceof Asset asset) {
+            return new DocKey(ASSET, asset.getId());
+        }
+        if (entity instanceof Audit audit) {
+            return new DocKey(AUDIT, audit.getId());
+        }
+        if (entity instanceof Image image) {
+            return new DocKey(IMAGE, image.getId());
+        }
+        return null;
+    }
+
+    static SearchDocument of(Object entity) {
+        if (entity instanceof Asset asset) {
+            return of(asset);
+        }
+        if (entity instanceof Audit audit) {
+            return of(audit);
+        }
+        if (entity instanceof Image image) {
+            return of(image);
+        }
+        return null;
+    }
+
+    static SearchDocument of(Asset asset) {
+        Map<String, Double> fields = new HashMap<>();
+        addField(fields, asset.getDeviceNumber(), 3.0);
+        addField(fields, asset.getSerialNumber(), 3.0);
+        addField(fields, asset.getBarcode(), 3.0);
+        addField(fields, asset.getDeviceName(), 2.0);
+        addField(fields, asset.getModel(), 2.0);
+        addField(fields, asset.getManufacturer(), 1.5);
+        addField(fields, asset.getLocation(), 1.0);
+        addField(fields, asset.getDepartment(), 1.0);
+        return new SearchDocument(new DocKey(ASSET, asset.getId()),
+                join(asset.getDeviceNumber(), asset.getDeviceName()),
+                join(asset.getDepartment(), asset.getLocation()),
+                fields);
+    }
+
+    static SearchDocument of(Audit audit) {
+        Map<String, Double> fields = new HashMap<>();
+        addField(fields, audit.getDeviceNumber(), 3.0);
+        addField(fields, audit.getAuditorName(), 1.5);
+        addField(fields, audit.getNotes(), 1.0);
+        addField(fields, audit.getCondition(), 1.0);
+        addField(fields, audit.getDepartment(), 1.0);
+        addField(fields, audit.getAuditLocation(), 1.0);
+        // The raw Vision AI output is long and repetitive, so its terms count for less
+        addField(fields, audit.getAiAnalysisResult(), 0.5);
+        return new SearchDocument(new DocKey(AUDIT, audit.getId()),
+                join(audit.getAuditType(), audit.getDeviceNumber()),
+                join(audit.getAuditorName(), audit.getStatus()),
+                fields);
+    }
+
+    static SearchDocument of(Image image) {
+        Map<String, Double> fields = new HashMap<>();
+        addField(fields, image.getOriginalFileName(), 3.0);
+        addField(fields, image.getDescription(), 1.5);
+        return new SearchDocument(new DocKey(IMAGE, image.getId()),
+                image.getOriginalFileName(),
+                image.getDescription(),
+                fields);
+    }
+
+    private static void addField(Map<String, Double> fields, String text, double boost) {
+        if (text != null && !text.isBlank()) {
+            fields.merge(text, boost, Double::sum);
+        }
+    }
+
+    private static String join(String first, String second) {
+        if (first == null || first.isBlank()) {
+            return second;
+        }
+        if (second == null || second.isBlank()) {
+            return first;
+        }
+        return first + " - " + second;
+    }
+}
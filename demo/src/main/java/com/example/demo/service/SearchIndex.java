@@ -0,0 +1,327 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over assets, audits and images. Terms are kept in a sorted
+ * dictionary for prefix lookups, and every term is also indexed by its character trigrams
+ * so misspelled query terms can be matched against terms within a small edit distance.
+ */
+@Component
+public class SearchIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    // Relative score of a query term that only matched as a prefix or within the edit distance
+    private static final double PREFIX_FACTOR = 0.7;
+    private static final double FUZZY_FACTOR = 0.5;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Keeps short prefixes from fanning out over the whole dictionary
+    private static final int MAX_EXPANSIONS = 64;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<DocKey, Double>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<DocKey, IndexedDocument> documents = new HashMap<>();
+    // While a rebuild loads, the keys live updates have written since it started. Its snapshot is
+    // older than those updates, so it must neither overwrite them nor bring back removed documents
+    private Set<DocKey> updatedDuringRebuild;
+
+    public void put(SearchDocument document) {
+        Map<String, Double> weights = weightsOf(document);
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(document.key());
+            }
+            putLocked(document, weights);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(DocKey key) {
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild != null) {
+                updatedDuringRebuild.add(key);
+            }
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Empties the index for a rebuild; live updates keep applying while it loads
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigrams.clear();
+            documents.clear();
+            updatedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adds a document read by the rebuild, unless a live update has already written it
+    public void putFromRebuild(SearchDocument document) {
+        Map<String, Double> weights = weightsOf(document);
+        lock.writeLock().lock();
+        try {
+            if (updatedDuringRebuild == null || !updatedDuringRebuild.contains(document.key())) {
+                putLocked(document, weights);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            updatedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks documents of the given types against the query. Each query term scores its
+     * exact match, otherwise its prefix matches, otherwise its fuzzy matches, weighted by
+     * field boost and inverse document frequency; documents matching more terms rank higher.
+     */
+    public List<Hit> search(String query, Set<String> types, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<DocKey, Double> scores = new HashMap<>();
+            Map<DocKey, Integer> matchedTerms = new HashMap<>();
+            int totalDocs = Math.max(documents.size(), 1);
+
+            for (String queryTerm : new HashSet<>(queryTerms)) {
+                Map<DocKey, Double> termScores = new HashMap<>();
+                for (Map.Entry<String, Double> candidate : expand(queryTerm).entrySet()) {
+                    Map<DocKey, Double> docs = postings.get(candidate.getKey());
+                    double idf = Math.log(1 + (double) totalDocs / docs.size());
+                    docs.forEach((key, weight) -> {
+                        if (types.isEmpty() || types.contains(key.type())) {
+                            termScores.merge(key, weight * idf * candidate.getValue(), Math::max);
+                        }
+                    });
+                }
+                termScores.forEach((key, score) -> {
+                    scores.merge(key, score, Double::sum);
+                    matchedTerms.merge(key, 1, Integer::sum);
+                });
+            }
+
+            int termCount = new HashSet<>(queryTerms).size();
+            return scores.entrySet().stream()
+                    .map(e -> {
+                        double coverage = (double) matchedTerms.get(e.getKey()) / termCount;
+                        IndexedDocument doc = documents.get(e.getKey());
+                        return new Hit(e.getKey(), doc.title(), doc.subtitle(), e.getValue() * coverage * coverage);
+                    })
+                    .sorted(Comparator.comparingDouble(Hit::score).reversed()
+                            .thenComparing(hit -> hit.key().type())
+                            .thenComparing(hit -> hit.key().id(), Comparator.reverseOrder()))
+                    .limit(limit)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Index terms a query term can match, with the factor applied to their score
+    private Map<String, Double> expand(String queryTerm) {
+        Map<String, Double> matches = new LinkedHashMap<>();
+        if (postings.containsKey(queryTerm)) {
+            matches.put(queryTerm, 1.0);
+            return matches;
+        }
+
+        if (queryTerm.length() >= MIN_PREFIX_LENGTH) {
+            for (String term : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).keySet()) {
+                if (matches.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                matches.put(term, PREFIX_FACTOR);
+            }
+        }
+
+        if (matches.isEmpty() && queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            int maxDistance = queryTerm.length() >= 8 ? 2 : 1;
+            Set<String> candidates = new HashSet<>();
+            for (String gram : trigramsOf(queryTerm)) {
+                candidates.addAll(trigrams.getOrDefault(gram, Set.of()));
+            }
+            for (String term : candidates) {
+                if (Math.abs(term.length() - queryTerm.length()) <= maxDistance
+                        && editDistance(queryTerm, term, maxDistance) <= maxDistance) {
+                    matches.put(term, FUZZY_FACTOR);
+                    if (matches.size() >= MAX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static Map<String, Double> weightsOf(SearchDocument document) {
+        Map<String, Double> weights = new HashMap<>();
+        document.fields().forEach((text, boost) -> {
+            for (String term : tokenize(text)) {
+                weights.merge(term, boost, Double::sum);
+            }
+        });
+        return weights;
+    }
+
+    private void putLocked(SearchDocument document, Map<String, Double> weights) {
+        removeLocked(document.key());
+        if (weights.isEmpty()) {
+            return;
+        }
+        weights.forEach((term, weight) -> {
+            Map<DocKey, Double> docs = postings.get(term);
+            if (docs == null) {
+                docs = new HashMap<>();
+                postings.put(term, docs);
+                for (String gram : trigramsOf(term)) {
+                    trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(term);
+                }
+            }
+            docs.put(document.key(), weight);
+        });
+        documents.put(document.key(), new IndexedDocument(document.title(), document.subtitle(), weights.keySet()));
+    }
+
+    private void removeLocked(DocKey key) {
+        IndexedDocument existing = documents.remove(key);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms()) {
+            Map<DocKey, Double> docs = postings.get(term);
+            if (docs == null) {
+                continue;
+            }
+            docs.remove(key);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+                for (String gram : trigramsOf(term)) {
+                    Set<String> terms = trigrams.get(gram);
+                    if (terms != null) {
+                        terms.remove(term);
+                        if (terms.isEmpty()) {
+                            trigrams.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Lowercases and strips accents (including the Vietnamese d-bar) so accented text matches plain queries
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .replace('\u0111', 'd').replace('\u0110', 'd')
+                .toLowerCase();
+        for (String term : NON_WORD.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    // Padded trigrams, so short terms and word boundaries still produce grams
+    private static Set<String> trigramsOf(String term) {
+        String padded = "$" + term + "$";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // Optimal string alignment distance, giving up once every cell in a row exceeds the limit
+    static int editDistance(String a, String b, int limit) {
+        int[] prevPrev = new int[b.length() + 1];
+        int[] prev = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(prev[j] + 1, current[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], prevPrev[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = prevPrev;
+            prevPrev = prev;
+            prev = current;
+            current = recycled;
+        }
+        return prev[b.length()];
+    }
+
+    public record DocKey(String type, Long id) {
+    }
+
+    /** Text to index, mapped to the boost applied to terms found in it. */
+    public record SearchDocument(DocKey key, String title, String subtitle, Map<String, Double> fields) {
+    }
+
+    public record Hit(DocKey key, String title, String subtitle, double score) {
+    }
+
+    private record IndexedDocument(String title, String subtitle, Set<String> terms) {
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.service;
+
+import com.example.demo.service.SearchIndex.DocKey;
+import com.example.demo.service.SearchIndex.SearchDocument;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that keeps {@link SearchIndex} in step with writes. Changes are
+ * applied once the surrounding transaction commits, so rolled back writes never show up
+ * in search results. Hibernate obtains this listener from the Spring context.
+ */
+@Component
+public class SearchIndexListener {
+
+    private final SearchIndex searchIndex;
+
+    public SearchIndexListener(SearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        // Capture the state now; the entity may change again before commit
+        SearchDocument document = SearchDocuments.of(entity);
+        if (document != null) {
+            AfterCommit.run(() -> searchIndex.put(document));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        DocKey key = SearchDocuments.keyOf(entity);
+        if (key != null) {
+            AfterCommit.run(() -> searchIndex.remove(key));
+        }
+    }
+}
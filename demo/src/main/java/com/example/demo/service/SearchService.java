@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SearchHit;
+import com.example.demo.entity.Image;
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.AuditRepository;
+import com.example.demo.repository.ImageRepository;
+import com.example.demo.service.SearchIndex.Hit;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class SearchService {
+    
+    public static final Set<String> TYPES = Set.of(SearchDocuments.ASSET, SearchDocuments.AUDIT, SearchDocuments.IMAGE);
+    
+    private final SearchIndex searchIndex;
+    private final AssetRepository assetRepository;
+    private final AuditRepository auditRepository;
+    private final ImageRepository imageRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    
+    @Value("${search.max-results:100}")
+    private int maxResults;
+    
+    // Set once the startup rebuild has loaded every existing row
+    private volatile boolean ready;
+
+    public SearchService(SearchIndex searchIndex,
+                         AssetRepository assetRepository,
+                         AuditRepository auditRepository,
+                         ImageRepository imageRepository,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager) {
+        this.searchIndex = searchIndex;
+        this.assetRepository = assetRepository;
+        this.auditRepository = auditRepository;
+        this.imageRepository = imageRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    // The index lives in memory, so it is loaded from the database in the background on every start
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread rebuild = new Thread(this::rebuildIndex, "search-index-rebuild");
+        rebuild.setDaemon(true);
+        rebuild.start();
+    }
+    
+    public void rebuildIndex() {
+        long started = System.currentTimeMillis();
+        ready = false;
+        searchIndex.beginRebuild();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                indexAll(assetRepository.streamAll(), SearchDocuments::of);
+                indexAll(auditRepository.streamAll(), SearchDocuments::of);
+                indexAll(imageRepository.streamAll(), SearchDocuments::of);
+            });
+            ready = true;
+            log.info("Search index rebuilt with {} documents in {} ms",
+                    searchIndex.size(), System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Search index rebuild failed", e);
+        } finally {
+            searchIndex.endRebuild();
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public List<SearchHit> search(String query, Set<String> types, Integer limit) {
+        int resultLimit = limit == null || limit <= 0 ? 20 : Math.min(limit, maxResults);
+        return searchIndex.search(query, types, resultLimit).stream()
+                .map(this::toSearchHit)
+                .toList();
+    }
+    
+    /**
+     * Images whose file name or description matches, best match first. Falls back to the
+     * LIKE query while the index is still loading after a restart.
+     */
+    public List<Image> searchImages(String text) {
+        if (!ready) {
+            return imageRepository.findByOriginalFileNameContainingIgnoreCase(text);
+        }
+        List<Long> ids = searchIndex.search(text, Set.of(SearchDocuments.IMAGE), maxResults).stream()
+                .map(hit -> hit.key().id())
+                .toList();
+        Map<Long, Image> byId = imageRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Image::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(image -> image != null).toList();
+    }
+    
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", ready);
+        stats.put("documents", searchIndex.size());
+        return stats;
+    }
+    
+    private <T> void indexAll(Stream<T> rows, Function<T, SearchIndex.SearchDocument> toDocument) {
+        try (rows) {
+            rows.forEach(row -> {
+                searchIndex.putFromRebuild(toDocument.apply(row));
+                // Keep the persistence context from holding every row read so far
+                entityManager.detach(row);
+            });
+        }
+    }
+    
+    private SearchHit toSearchHit(Hit hit) {
+        String type = hit.key().type();
+        Long id = hit.key().id();
+        String url = switch (type) {
+            case SearchDocuments.ASSET -> "/audit/asset/" + id;
+            case SearchDocuments.AUDIT -> "/api/audits/" + id;
+            default -> "/images/info/" + id;
+        };
+        return new SearchHit(type, id, hit.title(), hit.subtitle(), hit.score(), url);
+    }
+}
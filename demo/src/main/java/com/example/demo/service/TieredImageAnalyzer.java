@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the local engine first and calls the remote model only for photos where it could not
+ * read every required field. When the remote model is called, the fields read locally from
+ * barcodes override the model's reading of the same labels.
+ */
+@Component
+@Slf4j
+public class TieredImageAnalyzer implements AssetImageAnalyzer {
+
+    public static final String NAME = "tiered";
+    static final String UNRESOLVED_NOTE = "Remote analysis failed; only fields read from barcode labels are filled in";
+
+    private final LocalBarcodeAnalyzer localAnalyzer;
+    private final RemoteVisionAnalyzer remoteAnalyzer;
+    private final List<String> requiredFields;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final AtomicLong answeredLocally = new AtomicLong();
+    private final AtomicLong sentToRemote = new AtomicLong();
+    private final AtomicLong remoteFailures = new AtomicLong();
+
+    public TieredImageAnalyzer(LocalBarcodeAnalyzer localAnalyzer,
+                               RemoteVisionAnalyzer remoteAnalyzer,
+                               @Value("${vision.ai.tiered.required-fields:deviceNumber}") String[] requiredFields) {
+        this.localAnalyzer = localAnalyzer;
+        this.remoteAnalyzer = remoteAnalyzer;
+        this.requiredFields = Arrays.stream(requiredFields).map(String::trim).filter(f -> !f.isEmpty()).toList();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public String analyze(byte[] imageBytes) throws IOException {
+        return analyze(List.of(imageBytes)).get(0);
+    }
+
+    @Override
+    public List<String> analyze(List<byte[]> images) throws IOException {
+        List<ObjectNode> local = new ArrayList<>();
+        List<Integer> incomplete = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            local.add(analyzeLocally(images.get(i)));
+            if (!isComplete(local.get(i))) {
+                incomplete.add(i);
+            }
+        }
+
+        List<String> results = new ArrayList<>();
+        for (ObjectNode analysis : local) {
+            results.add(objectMapper.writeValueAsString(analysis));
+        }
+        // Without an API key the local reading is the best answer there is
+        if (incomplete.isEmpty() || !remoteAnalyzer.isAvailable()) {
+            answeredLocally.addAndGet(images.size());
+            return results;
+        }
+
+        List<byte[]> remoteImages = new ArrayList<>();
+        for (int index : incomplete) {
+            remoteImages.add(images.get(index));
+        }
+        answeredLocally.addAndGet(images.size() - incomplete.size());
+        sentToRemote.addAndGet(incomplete.size());
+        List<String> remote;
+        try {
+            remote = remoteAnalyzer.analyze(remoteImages);
+        } catch (IOException e) {
+            // Keep every local reading; only the photos that needed the model are marked unresolved
+            remoteFailures.addAndGet(incomplete.size());
+            for (int index : incomplete) {
+                local.get(index).put("notes", UNRESOLVED_NOTE);
+                results.set(index, objectMapper.writeValueAsString(local.get(index)));
+            }
+            throw new PartialAnalysisException("Remote analysis failed for " + incomplete.size() + " of "
+                    + images.size() + " images: " + e.getMessage(), results, e);
+        }
+        for (int i = 0; i < incomplete.size(); i++) {
+            int index = incomplete.get(i);
+            results.set(index, merge(remote.get(i), local.get(index)));
+        }
+        return results;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("answeredLocally", answeredLocally.get());
+        stats.put("sentToRemote", sentToRemote.get());
+        stats.put("remoteFailures", remoteFailures.get());
+        stats.putAll(localAnalyzer.getStats());
+        return stats;
+    }
+
+    private ObjectNode analyzeLocally(byte[] image) {
+        try {
+            return (ObjectNode) objectMapper.readTree(localAnalyzer.analyze(image));
+        } catch (IOException e) {
+            log.debug("Local analysis skipped: {}", e.getMessage());
+            return objectMapper.createObjectNode();
+        }
+    }
+
+    private boolean isComplete(ObjectNode analysis) {
+        for (String field : requiredFields) {
+            JsonNode value = analysis.get(field);
+            if (value == null || !value.isTextual() || value.asText().isBlank()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Replies that are not a JSON object are kept as they are; parseAnalysisResult copes with those
+    private String merge(String remote, ObjectNode local) throws IOException {
+        JsonNode remoteNode;
+        try {
+            remoteNode = objectMapper.readTree(remote);
+        } catch (JsonProcessingException e) {
+            return remote;
+        }
+        if (!(remoteNode instanceof ObjectNode merged)) {
+            return remote;
+        }
+        local.fields().forEachRemaining(field -> {
+            if (!"notes".equals(field.getKey())) {
+                merged.set(field.getKey(), field.getValue());
+            }
+        });
+        return objectMapper.writeValueAsString(merged);
+    }
+}
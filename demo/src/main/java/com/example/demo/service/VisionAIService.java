@@ -1,137 +1,196 @@
 package com.example.demo.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 @Service
 @Slf4j
 public class VisionAIService {
     
-    @Value("${vision.ai.api.key:}")
-    private String apiKey;
-    
-    @Value("${vision.ai.api.url:https://api.openai.com/v1/chat/completions}")
-    private String apiUrl;
-    
-    private final RestTemplate restTemplate;
+    private final AssetImageAnalyzer analyzer;
     private final ObjectMapper objectMapper;
+    private final VisionAnalysisCache analysisCache;
+    private final int imagesPerRequest;
+    private final int batchConcurrency;
+    private final ExecutorService batchExecutor;
     
-    public VisionAIService() {
-        this.restTemplate = new RestTemplate();
+    public VisionAIService(List<AssetImageAnalyzer> analyzers,
+                           @Value("${vision.ai.engine:remote}") String engine,
+                           VisionAnalysisCache analysisCache,
+                           @Value("${vision.ai.batch.images-per-request:4}") int imagesPerRequest,
+                           @Value("${vision.ai.batch.concurrency:4}") int batchConcurrency,
+                           WorkerThreads workerThreads) {
+        this.analyzer = analyzers.stream()
+                .filter(candidate -> candidate.getName().equals(engine))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown vision.ai.engine '" + engine + "', expected one of "
+                        + analyzers.stream().map(AssetImageAnalyzer::getName).toList()));
         this.objectMapper = new ObjectMapper();
+        this.analysisCache = analysisCache;
+        this.imagesPerRequest = Math.max(1, imagesPerRequest);
+        this.batchConcurrency = Math.max(1, batchConcurrency);
+        // Callers pass one batch window at a time, and VisionApiClient caps the requests in flight
+        this.batchExecutor = workerThreads.newExecutor("vision-batch-", this.batchConcurrency);
     }
     
     public String analyzeAssetImage(MultipartFile imageFile) throws IOException {
-        if (apiKey.isEmpty()) {
-            log.warn("Vision AI API key not configured, returning mock data");
+        if (!analyzer.isAvailable()) {
+            log.warn("Vision AI engine '{}' is not configured, returning mock data", analyzer.getName());
+            return generateMockAnalysis();
+        }
+        return analyzeAssetImage(imageFile.getBytes());
+    }
+    
+    public String analyzeAssetImage(byte[] imageBytes) {
+        if (!analyzer.isAvailable()) {
+            log.warn("Vision AI engine '{}' is not configured, returning mock data", analyzer.getName());
             return generateMockAnalysis();
         }
         
+        // Byte-identical uploads reuse the earlier analysis instead of calling the API again
+        String contentHash = analysisCache.hash(imageBytes);
+        Optional<String> cached = analysisCache.get(contentHash);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        
         try {
-            // Encode image to base64
-            String base64Image = Base64.getEncoder().encodeToString(imageFile.getBytes());
-            
-            // Prepare the request payload
-            Map<String, Object> requestBody = createVisionRequest(base64Image);
-            
-            // Set headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + apiKey);
-            
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-            
-            // Make API call
-            ResponseEntity<String> response = restTemplate.exchange(
-                apiUrl, HttpMethod.POST, entity, String.class);
-            
-            // Parse response
-            return parseVisionResponse(response.getBody());
+            String analysis = analyzer.analyze(imageBytes);
+            analysisCache.put(contentHash, analysis);
+            return analysis;
             
+        } catch (AssetImageAnalyzer.PartialAnalysisException e) {
+            // Better than mock data, but not cached, so the photo is analyzed again next time
+            log.warn("Vision AI engine '{}' returned a partial analysis: {}", analyzer.getName(), e.getMessage());
+            return e.getAnalyses().get(0);
+        } catch (VisionApiClient.UnavailableException e) {
+            log.warn("Vision AI API unavailable, returning mock data: {}", e.getMessage());
+            return generateMockAnalysis();
         } catch (Exception e) {
             log.error("Error calling Vision AI API", e);
             return generateMockAnalysis();
         }
     }
     
-    private Map<String, Object> createVisionRequest(String base64Image) {
-        Map<String, Object> request = new HashMap<>();
-        request.put("model", "gpt-4-vision-preview");
-        
-        Map<String, Object> message = new HashMap<>();
-        message.put("role", "user");
-        
-        Map<String, Object> content = new HashMap<>();
-        content.put("type", "text");
-        content.put("text", createAssetAnalysisPrompt());
-        
-        Map<String, Object> imageContent = new HashMap<>();
-        imageContent.put("type", "image_url");
-        
-        Map<String, Object> imageUrl = new HashMap<>();
-        imageUrl.put("url", "data:image/jpeg;base64," + base64Image);
-        
-        imageContent.put("image_url", imageUrl);
+    /**
+     * Analyzes several images, packing up to {@code images-per-request} images into each
+     * chat request and running at most {@code concurrency} requests at once.
+     * Results are returned in the same order as {@code images}.
+     */
+    public List<String> analyzeAssetImages(List<byte[]> images) {
+        String[] results = new String[images.size()];
+        if (!analyzer.isAvailable()) {
+            log.warn("Vision AI engine '{}' is not configured, returning mock data", analyzer.getName());
+            Arrays.fill(results, generateMockAnalysis());
+            return Arrays.asList(results);
+        }
         
-        message.put("content", new Object[]{content, imageContent});
+        String[] hashes = new String[images.size()];
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            hashes[i] = analysisCache.hash(images.get(i));
+            Optional<String> cached = analysisCache.get(hashes[i]);
+            if (cached.isPresent()) {
+                results[i] = cached.get();
+            } else {
+                pending.add(i);
+            }
+        }
         
-        request.put("messages", new Object[]{message});
-        request.put("max_tokens", 1000);
+        List<Future<?>> requests = new ArrayList<>();
+        for (int start = 0; start < pending.size(); start += imagesPerRequest) {
+            List<Integer> chunk = pending.subList(start, Math.min(start + imagesPerRequest, pending.size()));
+            requests.add(batchExecutor.submit(() -> analyzeChunk(chunk, images, hashes, results)));
+        }
+        for (Future<?> request : requests) {
+            try {
+                request.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                log.error("Vision AI batch request failed", e.getCause());
+            }
+        }
         
-        return request;
+        // Anything left unanswered falls back to mock data like the single-image path
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = generateMockAnalysis();
+            }
+        }
+        return Arrays.asList(results);
     }
     
-    private String createAssetAnalysisPrompt() {
-        return """
-            Analyze this asset image and extract the following information in JSON format:
-            {
-                "deviceNumber": "Generated device number (format: ASSET-YYYY-NNNNN)",
-                "department": "Department name if visible",
-                "barcode": "Barcode/QR code content if readable",
-                "serialNumber": "Serial number if visible",
-                "model": "Model number if visible",
-                "manufacturer": "Manufacturer name if visible",
-                "location": "Location description from image",
-                "condition": "Physical condition (Good/Fair/Poor/Damaged)",
-                "notes": "Additional observations"
-            }
-            
-            If any information is not clearly visible, mark as "Not visible" or make reasonable assumptions.
-            Generate a unique device number using format ASSET-YYYY-NNNNN where YYYY is current year and NNNNN is 5-digit sequence.
-            """;
+    // Number of images a caller should hold in memory at once to keep every batch connection busy
+    public int getBatchWindowSize() {
+        return imagesPerRequest * batchConcurrency;
+    }
+    
+    public Map<String, Object> getEngineStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("engine", analyzer.getName());
+        stats.put("available", analyzer.isAvailable());
+        stats.putAll(analyzer.getStats());
+        return stats;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdownNow();
     }
     
-    private String parseVisionResponse(String responseBody) {
+    private void analyzeChunk(List<Integer> chunk, List<byte[]> images, String[] hashes, String[] results) {
+        List<byte[]> chunkImages = new ArrayList<>();
+        for (Integer index : chunk) {
+            chunkImages.add(images.get(index));
+        }
+        
+        List<String> analyses;
         try {
-            JsonNode jsonNode = objectMapper.readTree(responseBody);
-            JsonNode choices = jsonNode.get("choices");
-            if (choices != null && choices.isArray() && choices.size() > 0) {
-                JsonNode message = choices.get(0).get("message");
-                if (message != null && message.has("content")) {
-                    return message.get("content").asText();
-                }
+            analyses = analyzer.analyze(chunkImages);
+        } catch (AssetImageAnalyzer.PartialAnalysisException e) {
+            log.warn("Vision AI engine '{}' returned a partial analysis for a batch of {} images: {}",
+                    analyzer.getName(), chunkImages.size(), e.getMessage());
+            for (int i = 0; i < chunk.size(); i++) {
+                results[chunk.get(i)] = e.getAnalyses().get(i);
             }
+            return;
+        } catch (VisionApiClient.UnavailableException e) {
+            log.warn("Vision AI API unavailable for a batch of {} images: {}", chunkImages.size(), e.getMessage());
+            return;
         } catch (Exception e) {
-            log.error("Error parsing Vision AI response", e);
+            log.error("Error calling Vision AI API for a batch of {} images", chunkImages.size(), e);
+            return;
+        }
+        
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunk.get(i);
+            results[index] = analyses.get(i);
+            analysisCache.put(hashes[index], analyses.get(i));
         }
-        return generateMockAnalysis();
     }
     
     private String generateMockAnalysis() {
         return """
             {
-                "deviceNumber": "ASSET-2025-00001",
+                "deviceNumber": null,
                 "department": "IT Department",
                 "barcode": "123456789012",
                 "serialNumber": "SN-ABC123456",
@@ -150,7 +209,6 @@ public class VisionAIService {
         } catch (Exception e) {
             log.error("Error parsing analysis result", e);
             Map<String, Object> mockResult = new HashMap<>();
-            mockResult.put("deviceNumber", "ASSET-2025-00001");
             mockResult.put("department", "Unknown");
             mockResult.put("condition", "Unknown");
             return mockResult;
@@ -0,0 +1,151 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AnalysisCacheEntry;
+import com.example.demo.repository.AnalysisCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class VisionAnalysisCache {
+    
+    private final AnalysisCacheRepository analysisCacheRepository;
+    private final Duration ttl;
+    private final boolean persistent;
+    private final Map<String, CachedAnalysis> entries;
+    
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public VisionAnalysisCache(AnalysisCacheRepository analysisCacheRepository,
+                               @Value("${vision.ai.cache.max-entries:1000}") int maxEntries,
+                               @Value("${vision.ai.cache.ttl:24h}") Duration ttl,
+                               @Value("${vision.ai.cache.persistent:false}") boolean persistent) {
+        this.analysisCacheRepository = analysisCacheRepository;
+        this.ttl = ttl;
+        this.persistent = persistent;
+        // Access-ordered map gives LRU eviction once maxEntries is reached
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAnalysis> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public String hash(byte[] imageBytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(imageBytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    public Optional<String> get(String contentHash) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedAnalysis cached = entries.get(contentHash);
+            if (cached != null) {
+                if (cached.expiresAt() > now) {
+                    memoryHits.incrementAndGet();
+                    return Optional.of(cached.analysis());
+                }
+                entries.remove(contentHash);
+                evictions.incrementAndGet();
+            }
+        }
+        
+        if (persistent) {
+            Optional<AnalysisCacheEntry> stored = analysisCacheRepository.findById(contentHash);
+            if (stored.isPresent()) {
+                AnalysisCacheEntry entry = stored.get();
+                LocalDateTime expiry = entry.getCreatedAt().plus(ttl);
+                LocalDateTime current = LocalDateTime.now();
+                if (expiry.isAfter(current)) {
+                    persistentHits.incrementAndGet();
+                    // Promoted entries keep the row's remaining lifetime rather than starting a fresh one
+                    putInMemory(contentHash, entry.getAnalysis(), now + Duration.between(current, expiry).toMillis());
+                    return Optional.of(entry.getAnalysis());
+                }
+                analysisCacheRepository.delete(entry);
+                evictions.incrementAndGet();
+            }
+        }
+        
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+    
+    public void put(String contentHash, String analysis) {
+        putInMemory(contentHash, analysis, System.currentTimeMillis() + ttl.toMillis());
+        
+        if (persistent) {
+            try {
+                analysisCacheRepository.save(new AnalysisCacheEntry(contentHash, analysis, LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                // A concurrent capture of the same image may have stored it first
+                log.warn("Could not persist Vision AI cache entry {}", contentHash, e);
+            }
+        }
+    }
+    
+    // Rows are otherwise only deleted when read after expiry, so images never seen again would stay forever
+    @Scheduled(fixedDelayString = "${vision.ai.cache.purge-interval:1h}",
+            initialDelayString = "${vision.ai.cache.purge-interval:1h}")
+    public void purgeExpired() {
+        if (!persistent) {
+            return;
+        }
+        int purged = analysisCacheRepository.deleteByCreatedAtBefore(LocalDateTime.now().minus(ttl));
+        if (purged > 0) {
+            evictions.addAndGet(purged);
+            log.info("Purged {} expired Vision AI cache rows", purged);
+        }
+    }
+    
+    public Map<String, Object> getStats() {
+        long hits = memoryHits.get() + persistentHits.get();
+        long total = hits + misses.get();
+        
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("persistentHits", persistentHits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("hitRatio", total == 0 ? 0.0 : (double) hits / total);
+        stats.put("persistent", persistent);
+        return stats;
+    }
+    
+    private void putInMemory(String contentHash, String analysis, long expiresAt) {
+        synchronized (entries) {
+            entries.put(contentHash, new CachedAnalysis(analysis, expiresAt));
+        }
+    }
+    
+    private record CachedAnalysis(String analysis, long expiresAt) {
+    }
+}
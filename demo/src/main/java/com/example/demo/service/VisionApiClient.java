@@ -0,0 +1,235 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP client for the Vision AI API. One shared JDK client keeps connections alive between
+ * calls, so a request reuses a pooled connection instead of a fresh TCP and TLS handshake. At most
+ * {@code max-concurrent-requests} calls are in flight, 429 and 5xx responses are retried with
+ * jittered exponential backoff (or after the server's Retry-After), and a circuit breaker
+ * fails calls fast while the upstream keeps failing.
+ */
+@Component
+@Slf4j
+public class VisionApiClient {
+
+    private final JdkClientHttpRequestFactory requestFactory;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentRequests;
+    private final Duration bulkheadWait;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final CircuitBreaker circuitBreaker;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong circuitRejections = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+
+    public VisionApiClient(@Value("${vision.ai.http.connect-timeout:5s}") Duration connectTimeout,
+                           @Value("${vision.ai.http.response-timeout:60s}") Duration responseTimeout,
+                           @Value("${vision.ai.http.max-concurrent-requests:8}") int maxConcurrentRequests,
+                           @Value("${vision.ai.http.bulkhead-wait:10s}") Duration bulkheadWait,
+                           @Value("${vision.ai.retry.max-attempts:3}") int maxAttempts,
+                           @Value("${vision.ai.retry.initial-backoff:500ms}") Duration initialBackoff,
+                           @Value("${vision.ai.retry.max-backoff:30s}") Duration maxBackoff,
+                           @Value("${vision.ai.circuit.failure-threshold:5}") int failureThreshold,
+                           @Value("${vision.ai.circuit.open-duration:30s}") Duration openDuration,
+                           WorkerThreads workerThreads) {
+        // HTTP/1.1 keeps one pooled connection per in-flight request, so the bulkhead also caps the pool
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout);
+        if (workerThreads.isVirtual()) {
+            // The client's own response handling then runs on virtual threads too
+            builder.executor(workerThreads.newExecutor("vision-http-", 1));
+        }
+        this.requestFactory = new JdkClientHttpRequestFactory(builder.build());
+        this.requestFactory.setReadTimeout(responseTimeout);
+        this.maxConcurrentRequests = Math.max(1, maxConcurrentRequests);
+        this.bulkhead = new Semaphore(this.maxConcurrentRequests, true);
+        this.bulkheadWait = bulkheadWait;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(1, initialBackoff.toMillis());
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoff.toMillis());
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+    }
+
+    /**
+     * POSTs a JSON body and returns the response body of the first 2xx response. The body is
+     * written again for every attempt, so it must be replayable.
+     */
+    public String post(String url, String apiKey, StreamingHttpOutputMessage.Body body) throws IOException {
+        requests.incrementAndGet();
+        for (int attempt = 1; ; attempt++) {
+            Response response;
+            try {
+                response = send(url, apiKey, body);
+            } catch (IOException e) {
+                if (e instanceof UnavailableException || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                failures.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.warn("Vision AI request failed (attempt {} of {}): {}", attempt, maxAttempts, e.toString());
+                backOff(backoffMillis(attempt));
+                continue;
+            }
+
+            if (response.status() >= 200 && response.status() < 300) {
+                return response.body();
+            }
+            boolean retryable = response.status() == 429 || response.status() >= 500;
+            if (!retryable || attempt >= maxAttempts) {
+                throw new IOException("Vision AI API responded " + response.status() + ": " + response.body());
+            }
+            long delay = response.retryAfterMillis() >= 0 ? response.retryAfterMillis() : backoffMillis(attempt);
+            if (delay > maxBackoffMillis) {
+                throw new IOException("Vision AI API responded " + response.status()
+                        + " and asked to retry after " + delay + " ms, longer than the maximum backoff");
+            }
+            log.warn("Vision AI API responded {} (attempt {} of {}), retrying in {} ms",
+                    response.status(), attempt, maxAttempts, delay);
+            backOff(delay);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("circuit", circuitBreaker.state().name());
+        stats.put("requests", requests.get());
+        stats.put("retries", retries.get());
+        stats.put("failures", failures.get());
+        stats.put("circuitRejections", circuitRejections.get());
+        stats.put("bulkheadRejections", bulkheadRejections.get());
+        stats.put("inFlight", maxConcurrentRequests - bulkhead.availablePermits());
+        stats.put("waiting", bulkhead.getQueueLength());
+        return stats;
+    }
+
+    // One attempt. The bulkhead permit is held only while the request is on the wire, not while backing off
+    private Response send(String url, String apiKey, StreamingHttpOutputMessage.Body body) throws IOException {
+        try {
+            if (!bulkhead.tryAcquire(bulkheadWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                bulkheadRejections.incrementAndGet();
+                throw new UnavailableException("Too many concurrent Vision AI requests");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a Vision AI request slot");
+        }
+        try {
+            if (!circuitBreaker.tryAcquire()) {
+                circuitRejections.incrementAndGet();
+                throw new UnavailableException("Vision AI circuit is open");
+            }
+            Response response;
+            try {
+                ClientHttpRequest request = requestFactory.createRequest(URI.create(url), HttpMethod.POST);
+                request.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                request.getHeaders().setBearerAuth(apiKey);
+                if (request instanceof StreamingHttpOutputMessage streamingRequest) {
+                    streamingRequest.setBody(body);
+                } else {
+                    body.writeTo(request.getBody());
+                }
+                try (ClientHttpResponse clientResponse = request.execute()) {
+                    response = new Response(clientResponse.getStatusCode().value(),
+                            retryAfterMillis(clientResponse.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)),
+                            StreamUtils.copyToString(clientResponse.getBody(), StandardCharsets.UTF_8));
+                }
+            } catch (IOException | RuntimeException e) {
+                circuitBreaker.onFailure();
+                throw e;
+            }
+            // Only server errors count against the upstream; a 429 or 4xx says it is up
+            if (response.status() >= 500) {
+                failures.incrementAndGet();
+                circuitBreaker.onFailure();
+            } else if (response.status() == 429) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            return response;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    // Full jitter: a random delay up to the exponential ceiling for this attempt
+    private long backoffMillis(int attempt) {
+        long ceiling = initialBackoffMillis << Math.min(attempt - 1, 20);
+        return ThreadLocalRandom.current().nextLong(Math.min(ceiling, maxBackoffMillis) + 1);
+    }
+
+    private void backOff(long delayMillis) throws IOException {
+        retries.incrementAndGet();
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off a Vision AI request");
+        }
+    }
+
+    // Retry-After is either delta-seconds or an HTTP date; -1 when absent or unreadable
+    static long retryAfterMillis(String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            // Not a number, so try the date form
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(Instant.now(), at.toInstant()).toMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private record Response(int status, long retryAfterMillis, String body) {
+    }
+
+    /** Thrown without calling the upstream, while the circuit is open or every request slot is taken. */
+    public static class UnavailableException extends IOException {
+
+        public UnavailableException(String message) {
+            super(message);
+        }
+    }
+}
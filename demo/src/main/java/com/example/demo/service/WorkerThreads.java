@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Threads for the application's own background work. With spring.threads.virtual.enabled on a
+ * Java 21 runtime (the same switch that moves Tomcat onto virtual threads) they are virtual
+ * threads; otherwise named daemon platform threads. On Java 17 the property is ignored.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    @Autowired
+    public WorkerThreads(Environment environment) {
+        this(Threading.VIRTUAL.isActive(environment));
+    }
+
+    public WorkerThreads(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public ThreadFactory threadFactory(String namePrefix) {
+        if (virtual) {
+            return new VirtualThreadTaskExecutor(namePrefix).getVirtualThreadFactory();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A fixed pool of platformThreads platform threads, or a new virtual thread per task. In
+     * virtual mode the caller bounds concurrency itself; blocking no longer ties up a pool slot.
+     */
+    public ExecutorService newExecutor(String namePrefix, int platformThreads) {
+        if (virtual) {
+            // Thread-per-task; Executors.newThreadPerTaskExecutor needs Java 21 to compile
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0L, TimeUnit.MILLISECONDS,
+                    new SynchronousQueue<>(), threadFactory(namePrefix));
+        }
+        return Executors.newFixedThreadPool(platformThreads, threadFactory(namePrefix));
+    }
+}
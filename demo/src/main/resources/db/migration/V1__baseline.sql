@@ -0,0 +1,85 @@
+-- Schema as previously created by spring.jpa.hibernate.ddl-auto=update.
+-- IF NOT EXISTS lets databases created that way adopt versioned migrations as-is.
+
+CREATE TABLE IF NOT EXISTS assets (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    device_number VARCHAR(255) NOT NULL UNIQUE,
+    device_name VARCHAR(255) NOT NULL,
+    department VARCHAR(255),
+    location VARCHAR(255),
+    latitude FLOAT(53),
+    longitude FLOAT(53),
+    barcode VARCHAR(255),
+    serial_number VARCHAR(255),
+    model VARCHAR(255),
+    manufacturer VARCHAR(255),
+    status VARCHAR(255),
+    ai_extracted_info TEXT,
+    image_path VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    last_audited TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS audits (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    asset_id BIGINT NOT NULL,
+    audit_type VARCHAR(255) NOT NULL,
+    auditor_name VARCHAR(255),
+    audit_location VARCHAR(255),
+    audit_latitude FLOAT(53),
+    audit_longitude FLOAT(53),
+    condition VARCHAR(255),
+    notes CLOB,
+    status VARCHAR(255),
+    evidence_image_path VARCHAR(255),
+    ai_analysis_result CLOB,
+    device_number VARCHAR(255),
+    department VARCHAR(255),
+    audit_date TIMESTAMP(6) NOT NULL,
+    completed_at TIMESTAMP(6),
+    CONSTRAINT fk_audits_asset FOREIGN KEY (asset_id) REFERENCES assets (id)
+);
+
+CREATE TABLE IF NOT EXISTS images (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    original_file_name VARCHAR(255) NOT NULL,
+    stored_file_name VARCHAR(255) NOT NULL,
+    file_path VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    uploaded_at TIMESTAMP(6) NOT NULL,
+    description VARCHAR(255)
+);
+
+-- Added after some databases were already created
+ALTER TABLE images ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+CREATE TABLE IF NOT EXISTS capture_jobs (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status VARCHAR(255) NOT NULL,
+    auditor_name VARCHAR(255),
+    latitude FLOAT(53),
+    longitude FLOAT(53),
+    image_path VARCHAR(255) NOT NULL,
+    asset_id BIGINT,
+    audit_id BIGINT,
+    device_number VARCHAR(255),
+    error_message VARCHAR(1000),
+    created_at TIMESTAMP(6) NOT NULL,
+    completed_at TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS vision_analysis_cache (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    analysis CLOB NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS image_blobs (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    file_path VARCHAR(255) NOT NULL,
+    file_size BIGINT NOT NULL,
+    content_type VARCHAR(255) NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,21 @@
+-- One index per repository finder, plus the orderings used by list and keyset pages
+
+CREATE INDEX IF NOT EXISTS idx_assets_department_status ON assets (department, status);
+CREATE INDEX IF NOT EXISTS idx_assets_status ON assets (status);
+CREATE INDEX IF NOT EXISTS idx_assets_barcode ON assets (barcode);
+CREATE INDEX IF NOT EXISTS idx_assets_serial_number ON assets (serial_number);
+CREATE INDEX IF NOT EXISTS idx_assets_created_at_id ON assets (created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_audits_asset_date ON audits (asset_id, audit_date);
+CREATE INDEX IF NOT EXISTS idx_audits_auditor_name_date ON audits (auditor_name, audit_date);
+CREATE INDEX IF NOT EXISTS idx_audits_status ON audits (status);
+CREATE INDEX IF NOT EXISTS idx_audits_audit_type ON audits (audit_type);
+CREATE INDEX IF NOT EXISTS idx_audits_date_id ON audits (audit_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_images_stored_file_name ON images (stored_file_name);
+CREATE INDEX IF NOT EXISTS idx_images_content_type ON images (content_type);
+CREATE INDEX IF NOT EXISTS idx_images_uploaded_at ON images (uploaded_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_capture_jobs_status_created ON capture_jobs (status, created_at);
+
+CREATE INDEX IF NOT EXISTS idx_image_blobs_file_path ON image_blobs (file_path);
@@ -0,0 +1,6 @@
+-- Asset ids move from IDENTITY to a pooled sequence so inserts can be batched.
+-- Hibernate hands out the 50 ids up to each value it reads, so the sequence restarts
+-- 50 past the current maximum to keep new ids clear of existing rows.
+
+CREATE SEQUENCE IF NOT EXISTS assets_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE assets_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM assets);
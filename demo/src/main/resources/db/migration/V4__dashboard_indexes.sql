@@ -0,0 +1,2 @@
+-- Recent completions on the audit dashboard, newest first
+CREATE INDEX IF NOT EXISTS idx_audits_completed_at_id ON audits (completed_at DESC, id DESC);
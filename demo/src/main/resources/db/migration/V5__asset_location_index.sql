@@ -0,0 +1,2 @@
+-- Bounding-box lookups on asset coordinates while the in-memory spatial index loads
+CREATE INDEX IF NOT EXISTS idx_assets_latitude_longitude ON assets (latitude, longitude);
@@ -0,0 +1,104 @@
+package com.example.demo.controller;
+
+import com.example.demo.entity.Audit;
+import com.example.demo.repository.AuditRepository;
+import com.example.demo.repository.CapturingStatementInspector;
+import com.example.demo.service.AssetAuditService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fails when a list view or API starts loading rows one at a time. The statement budgets do
+ * not depend on how many audits exist, so a lazy association walked per row breaks them.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:list-queries;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.repository.CapturingStatementInspector"
+})
+@AutoConfigureMockMvc
+class ListQueryCountTest {
+
+	private static final int ASSETS = 15;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private AssetAuditService assetAuditService;
+
+	@Autowired
+	private AuditRepository auditRepository;
+
+	private Long auditId;
+
+	@BeforeEach
+	void seed() {
+		if (auditRepository.count() > 0) {
+			return;
+		}
+		for (int i = 0; i < ASSETS; i++) {
+			String analysis = """
+					{"deviceNumber": "ASSET-2024-%05d", "model": "Dell Latitude 5420", "department": "IT"}"""
+					.formatted(900 + i);
+			// Two audits per asset, so per-row loading would show up on every list
+			assetAuditService.recordCapture(analysis, "uploads/list-test.jpg", "auditor-a", null, null);
+			auditId = assetAuditService.recordCapture(analysis, "uploads/list-test.jpg", "auditor-a", null, null).getId();
+		}
+	}
+
+	@Test
+	void listViewsRunAFixedNumberOfQueries() throws Exception {
+		// The dashboard renders from in-memory counters
+		assertStatements("/audit", 0);
+		assertStatements("/audit/audits", 1);
+		assertStatements("/audit/assets", 1);
+	}
+
+	@Test
+	void listApisRunAFixedNumberOfQueries() throws Exception {
+		assertStatements("/api/audits", 1);
+		assertStatements("/api/audits?size=5", 1);
+		assertStatements("/api/audits/auditor/auditor-a", 1);
+		assertStatements("/api/assets", 1);
+		assertStatements("/api/assets/department/IT", 1);
+	}
+
+	@Test
+	void auditDetailFetchesItsAssetWithoutOpenInView() throws Exception {
+		Long id = auditId != null ? auditId : auditRepository.findAll().get(0).getId();
+		assertStatements("/api/audits/" + id, 1);
+		assertStatements("/audit/complete/" + id, 1);
+	}
+
+	@Test
+	void entityFindersJoinTheAsset() {
+		CapturingStatementInspector.clear();
+		List<Audit> all = auditRepository.findAllByOrderByAuditDateDesc();
+		List<Audit> byAuditor = auditRepository.findByAuditorName("auditor-a");
+		all.forEach(audit -> audit.getAsset().getDeviceName());
+		byAuditor.forEach(audit -> audit.getAsset().getDeviceName());
+
+		assertThat(all).hasSize(ASSETS * 2);
+		assertThat(CapturingStatementInspector.statements()).hasSize(2);
+	}
+
+	private void assertStatements(String url, int maxStatements) throws Exception {
+		CapturingStatementInspector.clear();
+		mockMvc.perform(get(url)).andExpect(status().isOk());
+		assertThat(CapturingStatementInspector.statements())
+				.as("statements issued by GET %s", url)
+				.hasSizeLessThanOrEqualTo(maxStatements);
+	}
+
+}
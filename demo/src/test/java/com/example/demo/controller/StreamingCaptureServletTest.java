@@ -0,0 +1,116 @@
+package com.example.demo.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Slow uploads to the streaming capture endpoint must not hold request threads: with two
+ * Tomcat threads, many half-sent uploads stay open while other requests are still served.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:streaming-capture;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false",
+		"server.tomcat.threads.max=2",
+		"server.tomcat.threads.min-spare=1"
+})
+class StreamingCaptureServletTest {
+
+	private static final int UPLOADS = 20;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private StreamingCaptureServlet streamingCaptureServlet;
+
+	@Test
+	void halfSentUploadsDoNotHoldRequestThreads() throws Exception {
+		byte[] image = png();
+		int half = image.length / 2;
+		List<Socket> sockets = new ArrayList<>();
+		try {
+			for (int i = 0; i < UPLOADS; i++) {
+				Socket socket = new Socket("127.0.0.1", port);
+				socket.setSoTimeout(10_000);
+				OutputStream out = socket.getOutputStream();
+				out.write(("POST /api/captures/stream?auditorName=slow-" + i + " HTTP/1.1\r\n"
+						+ "Host: 127.0.0.1\r\n"
+						+ "Content-Type: image/png\r\n"
+						+ "Content-Length: " + image.length + "\r\n"
+						+ "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+				out.write(image, 0, half);
+				out.flush();
+				sockets.add(socket);
+			}
+
+			waitForActiveUploads(UPLOADS);
+			// Both request threads are free, so an unrelated request is still answered
+			HttpURLConnection metrics = (HttpURLConnection) URI.create(
+					"http://127.0.0.1:" + port + "/api/metrics/capture-uploads").toURL().openConnection();
+			metrics.setReadTimeout(5_000);
+			assertThat(metrics.getResponseCode()).isEqualTo(200);
+
+			for (Socket socket : sockets) {
+				socket.getOutputStream().write(image, half, image.length - half);
+				socket.getOutputStream().flush();
+			}
+			for (Socket socket : sockets) {
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+				assertThat(in.readLine()).startsWith("HTTP/1.1 202");
+			}
+		} finally {
+			for (Socket socket : sockets) {
+				socket.close();
+			}
+		}
+		assertThat(streamingCaptureServlet.getStats().get("accepted")).isEqualTo((long) UPLOADS);
+	}
+
+	@Test
+	void rejectsBodiesThatAreNotImages() throws Exception {
+		HttpURLConnection connection = (HttpURLConnection) URI.create(
+				"http://127.0.0.1:" + port + "/api/captures/stream?auditorName=a").toURL().openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		connection.setRequestProperty("Content-Type", "text/plain");
+		connection.getOutputStream().write("not an image".getBytes(StandardCharsets.UTF_8));
+		assertThat(connection.getResponseCode()).isEqualTo(415);
+	}
+
+	private void waitForActiveUploads(long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while ((long) streamingCaptureServlet.getStats().get("active") < expected
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(streamingCaptureServlet.getStats().get("active")).isEqualTo(expected);
+	}
+
+	private static byte[] png() throws IOException {
+		BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+		for (int i = 0; i < 64; i++) {
+			image.setRGB(i, 63 - i, 0x336699 * (i + 1));
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+}
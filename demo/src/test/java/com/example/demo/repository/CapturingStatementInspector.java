@@ -0,0 +1,30 @@
+package com.example.demo.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Records the SQL Hibernate prepares, so tests can inspect or count statements.
+ * Enabled with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+	private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.add(sql);
+		return sql;
+	}
+
+	public static void clear() {
+		STATEMENTS.clear();
+	}
+
+	public static List<String> statements() {
+		return List.copyOf(STATEMENTS);
+	}
+
+}
@@ -0,0 +1,127 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.Asset;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository finder against a schema built by the migrations and checks with
+ * H2's EXPLAIN that none of the statements it issues falls back to a full table scan.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:query-plan;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.repository.CapturingStatementInspector"
+})
+class QueryPlanTest {
+
+	@Autowired
+	private AssetRepository assetRepository;
+
+	@Autowired
+	private AuditRepository auditRepository;
+
+	@Autowired
+	private ImageRepository imageRepository;
+
+	@Autowired
+	private CaptureJobRepository captureJobRepository;
+
+	@Autowired
+	private ImageBlobRepository imageBlobRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	void everyFinderUsesAnIndex() throws SQLException {
+		Asset asset = new Asset();
+		asset.setDeviceNumber("ASSET-PLAN-1");
+		asset.setDeviceName("Plan Test");
+		asset.setCreatedAt(LocalDateTime.now());
+		Asset saved = assetRepository.save(asset);
+		LocalDateTime now = LocalDateTime.now();
+		PageRequest page = PageRequest.of(0, 10);
+
+		Map<String, Runnable> finders = new LinkedHashMap<>();
+		finders.put("AssetRepository.findByDeviceNumber", () -> assetRepository.findByDeviceNumber("x"));
+		finders.put("AssetRepository.findByDeviceNumberIn",
+				() -> assetRepository.findByDeviceNumberIn(List.of("x", "y")));
+		finders.put("AssetRepository.findByDepartment", () -> assetRepository.findByDepartment("x"));
+		finders.put("AssetRepository.findByStatus", () -> assetRepository.findByStatus("x"));
+		finders.put("AssetRepository.findByBarcode", () -> assetRepository.findByBarcode("x"));
+		finders.put("AssetRepository.findBySerialNumber", () -> assetRepository.findBySerialNumber("x"));
+		finders.put("AssetRepository.findAllByOrderByCreatedAtDesc", () -> assetRepository.findAllByOrderByCreatedAtDesc());
+		finders.put("AssetRepository.findAllSummaries", () -> assetRepository.findAllSummaries());
+		finders.put("AssetRepository.findSummariesByDepartment", () -> assetRepository.findSummariesByDepartment("x"));
+		finders.put("AssetRepository.findFirstPage", () -> assetRepository.findFirstPage(page));
+		finders.put("AssetRepository.findPageAfter", () -> assetRepository.findPageAfter(now, 1L, page));
+		finders.put("AssetRepository.findSummariesByIdIn", () -> assetRepository.findSummariesByIdIn(List.of(1L, 2L)));
+		finders.put("AssetRepository.findSummariesWithin",
+				() -> assetRepository.findSummariesWithin(10.7, 106.6, 10.8, 106.7, page));
+		finders.put("AuditRepository.findByAsset", () -> auditRepository.findByAsset(saved));
+		finders.put("AuditRepository.findByAuditorName", () -> auditRepository.findByAuditorName("x"));
+		finders.put("AuditRepository.findByStatus", () -> auditRepository.findByStatus("x"));
+		finders.put("AuditRepository.findByAuditType", () -> auditRepository.findByAuditType("x"));
+		finders.put("AuditRepository.findAllByOrderByAuditDateDesc", () -> auditRepository.findAllByOrderByAuditDateDesc());
+		finders.put("AuditRepository.findAllSummaries", () -> auditRepository.findAllSummaries());
+		finders.put("AuditRepository.findSummariesByAuditorName", () -> auditRepository.findSummariesByAuditorName("x"));
+		finders.put("AuditRepository.findFirstPage", () -> auditRepository.findFirstPage(page));
+		finders.put("AuditRepository.findPageAfter", () -> auditRepository.findPageAfter(now, 1L, page));
+		finders.put("AuditRepository.findRecentlyCompleted", () -> auditRepository.findRecentlyCompleted(page));
+		finders.put("ImageRepository.findFirstByStoredFileName", () -> imageRepository.findFirstByStoredFileName("x"));
+		finders.put("ImageRepository.findByContentType", () -> imageRepository.findByContentType("x"));
+		finders.put("ImageRepository.findAllByOrderByUploadedAtDesc", () -> imageRepository.findAllByOrderByUploadedAtDesc());
+		finders.put("CaptureJobRepository.findByStatusInOrderByCreatedAtAsc",
+				() -> captureJobRepository.findByStatusInOrderByCreatedAtAsc(List.of("Pending", "Processing")));
+		finders.put("ImageBlobRepository.findByFilePath", () -> imageBlobRepository.findByFilePath("x"));
+		// The dashboard's GROUP BY counts read every row by design and only run at startup.
+		// findByOriginalFileNameContainingIgnoreCase is a LIKE '%x%' scan by design; it only
+		// serves image search while the search index is loading
+
+		for (Map.Entry<String, Runnable> finder : finders.entrySet()) {
+			CapturingStatementInspector.clear();
+			finder.getValue().run();
+			List<String> statements = CapturingStatementInspector.statements();
+			assertThat(statements).as(finder.getKey()).isNotEmpty();
+
+			for (String sql : statements) {
+				String plan = explain(sql);
+				assertThat(plan).as("%s%n%s", finder.getKey(), plan).doesNotContain("tableScan");
+			}
+		}
+	}
+
+	private String explain(String sql) throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+			// The plan is chosen when the statement is prepared, so the values do not matter
+			int parameters = statement.getParameterMetaData().getParameterCount();
+			for (int i = 1; i <= parameters; i++) {
+				statement.setObject(i, null);
+			}
+			try (ResultSet rs = statement.executeQuery()) {
+				StringBuilder plan = new StringBuilder();
+				while (rs.next()) {
+					plan.append(rs.getString(1)).append('\n');
+				}
+				return plan.toString();
+			}
+		}
+	}
+
+}
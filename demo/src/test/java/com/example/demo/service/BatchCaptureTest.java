@@ -0,0 +1,68 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BatchCaptureResult;
+import com.example.demo.repository.AssetRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:batch-capture;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false",
+		"vision.ai.batch.images-per-request=1",
+		"vision.ai.batch.concurrency=2"
+})
+class BatchCaptureTest {
+
+	@Autowired
+	private AssetAuditService assetAuditService;
+
+	@Autowired
+	private AssetRepository assetRepository;
+
+	@Test
+	void aFailedImageLeavesTheOthersCapturedAndReported() {
+		// Windows of two, so the failure sits between images committed before and after it
+		List<MultipartFile> files = List.of(png("first.png", 1), png("second.png", 2), unreadable("third.png"), png("fourth.png", 4));
+
+		List<BatchCaptureResult> results = assetAuditService.processAssetImages(files, "auditor", null, null);
+
+		assertThat(results).extracting(BatchCaptureResult::index).containsExactly(0, 1, 2, 3);
+		assertThat(results).extracting(BatchCaptureResult::succeeded).containsExactly(true, true, false, true);
+		assertThat(results.get(2).fileName()).isEqualTo("third.png");
+		assertThat(results.get(2).error()).startsWith("Failed to read image");
+		assertThat(results.stream().filter(BatchCaptureResult::succeeded))
+				.allSatisfy(result -> assertThat(assetRepository.findById(result.assetId())).isPresent());
+	}
+
+	private static MockMultipartFile png(String name, int n) {
+		byte[] bytes = new byte[64];
+		byte[] signature = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+		System.arraycopy(signature, 0, bytes, 0, signature.length);
+		bytes[20] = (byte) n;
+		return new MockMultipartFile("imageFiles", name, "image/png", bytes);
+	}
+
+	private static MockMultipartFile unreadable(String name) {
+		return new MockMultipartFile("imageFiles", name, "image/png", new byte[0]) {
+			@Override
+			public byte[] getBytes() throws IOException {
+				throw new IOException("connection reset");
+			}
+
+			@Override
+			public InputStream getInputStream() throws IOException {
+				throw new IOException("connection reset");
+			}
+		};
+	}
+
+}
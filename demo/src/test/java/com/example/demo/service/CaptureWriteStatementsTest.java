@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Audit;
+import com.example.demo.repository.CapturingStatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of statements the capture and audit completion paths issue, so a change
+ * that adds a per-row select or goes back to full-row updates fails here.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:capture-writes;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.repository.CapturingStatementInspector"
+})
+class CaptureWriteStatementsTest {
+
+	private static final String TAGGED = """
+			{"deviceNumber": "ASSET-2024-00500", "model": "Lenovo ThinkPad T14", "department": "Finance"}""";
+
+	private static final String IMAGE_PATH = "uploads/statement-test.jpg";
+
+	@Autowired
+	private AssetAuditService assetAuditService;
+
+	@Test
+	void recapturingAKnownAssetSelectsOnceAndWritesTwice() {
+		assetAuditService.recordCapture(TAGGED, IMAGE_PATH, "auditor", 10.0, 106.0);
+
+		CapturingStatementInspector.clear();
+		assetAuditService.recordCapture(TAGGED, IMAGE_PATH, "auditor", 10.5, 106.5);
+
+		// select asset by device number, update asset, insert audit
+		List<String> statements = CapturingStatementInspector.statements();
+		assertThat(statements).hasSize(3);
+		assertThat(updatesOf(statements, "assets")).singleElement()
+				.asString().doesNotContain("device_name", "created_at", "status");
+	}
+
+	@Test
+	void completingAnAuditIsOneSelectAndTwoColumnLevelUpdates() {
+		Audit audit = assetAuditService.recordCapture(
+				TAGGED.replace("00500", "00501"), IMAGE_PATH, "auditor", null, null);
+
+		CapturingStatementInspector.clear();
+		assetAuditService.completeAudit(audit.getId(), "Good", "Checked on site", "Completed");
+
+		List<String> statements = CapturingStatementInspector.statements();
+		assertThat(statements).hasSize(3);
+		assertThat(statements.get(0)).containsIgnoringCase("join");
+		assertThat(updatesOf(statements, "assets")).singleElement()
+				.asString().doesNotContain("device_name", "ai_extracted_info");
+		assertThat(updatesOf(statements, "audits")).singleElement()
+				.asString().doesNotContain("ai_analysis_result", "auditor_name");
+	}
+
+	private List<String> updatesOf(List<String> statements, String table) {
+		return statements.stream()
+				.map(String::toLowerCase)
+				.filter(sql -> sql.startsWith("update " + table + " "))
+				.toList();
+	}
+
+}
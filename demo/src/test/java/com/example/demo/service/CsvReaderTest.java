@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+	@Test
+	void keepsCommasInsideQuotedFields() throws IOException {
+		CsvReader csv = reader("ASSET-1,\"Floor 2, Room 14\",HR\n");
+		assertEquals(List.of("ASSET-1", "Floor 2, Room 14", "HR"), csv.readRecord());
+		assertNull(csv.readRecord());
+	}
+
+	@Test
+	void unescapesDoubledQuotes() throws IOException {
+		CsvReader csv = reader("\"Monitor 27\"\" curved\",\"\"\"\"\n");
+		assertEquals(List.of("Monitor 27\" curved", "\""), csv.readRecord());
+	}
+
+	@Test
+	void keepsLineBreaksInsideQuotedFieldsAndCountsThem() throws IOException {
+		CsvReader csv = reader("ASSET-1,\"Dented lid\nCracked hinge\"\nASSET-2,ok\n");
+		assertEquals(List.of("ASSET-1", "Dented lid\nCracked hinge"), csv.readRecord());
+		assertEquals(1, csv.getRecordLine());
+		assertEquals(List.of("ASSET-2", "ok"), csv.readRecord());
+		assertEquals(3, csv.getRecordLine());
+	}
+
+	@Test
+	void readsCrlfLineEndingsAndSkipsBlankLines() throws IOException {
+		CsvReader csv = reader("deviceNumber,department\r\n\r\nASSET-1,\r\nASSET-2,\"IT\"\r\n");
+		assertEquals(List.of("deviceNumber", "department"), csv.readRecord());
+		assertEquals(List.of("ASSET-1", ""), csv.readRecord());
+		assertEquals(3, csv.getRecordLine());
+		assertEquals(List.of("ASSET-2", "IT"), csv.readRecord());
+		assertEquals(4, csv.getRecordLine());
+		assertNull(csv.readRecord());
+	}
+
+	@Test
+	void reportsTheLineAnUnterminatedQuoteStartsOn() throws IOException {
+		CsvReader csv = reader("ASSET-1,HR\nASSET-2,\"Finance\nASSET-3,IT\n");
+		assertEquals(List.of("ASSET-1", "HR"), csv.readRecord());
+		CsvReader.MalformedRecordException e = assertThrows(CsvReader.MalformedRecordException.class, csv::readRecord);
+		assertEquals(2, e.getLine());
+	}
+
+	private static CsvReader reader(String input) {
+		return new CsvReader(new StringReader(input));
+	}
+}
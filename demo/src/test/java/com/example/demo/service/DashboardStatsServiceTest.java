@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.DashboardStats;
+import com.example.demo.entity.Audit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:dashboard-stats;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false",
+		"dashboard.recent-activity=5"
+})
+class DashboardStatsServiceTest {
+
+	@Autowired
+	private AssetAuditService assetAuditService;
+
+	@Autowired
+	private DashboardStatsService dashboardStatsService;
+
+	@Test
+	void incrementalCountersMatchARebuildFromTheDatabase() {
+		Audit first = capture("ASSET-2024-00700", "Finance", "auditor-a");
+		capture("ASSET-2024-00700", "Finance", "auditor-b");
+		Audit third = capture("ASSET-2024-00701", "HR", "auditor-a");
+		capture(null, "HR", "auditor-b");
+		assetAuditService.completeAudit(first.getId(), "Broken", "Screen cracked", "Needs Replacement");
+		assetAuditService.completeAudit(third.getId(), "Good", "", "Completed");
+
+		DashboardStats incremental = dashboardStatsService.getStats();
+		assertThat(incremental.totalAssets()).isEqualTo(3);
+		assertThat(incremental.totalAudits()).isEqualTo(4);
+		assertThat(incremental.openAudits()).isEqualTo(2);
+		assertThat(incremental.completedAudits()).isEqualTo(2);
+		assertThat(incremental.issuesFound()).isEqualTo(1);
+		assertThat(incremental.assetsByDepartment()).containsEntry("Finance", 1L).containsEntry("HR", 2L);
+		assertThat(incremental.auditsByAuditor()).containsEntry("auditor-a", 2L).containsEntry("auditor-b", 2L);
+		assertThat(incremental.recentActivity()).hasSize(5);
+		assertThat(incremental.recentActivity().get(0).auditId()).isEqualTo(third.getId());
+
+		dashboardStatsService.rebuild();
+		DashboardStats rebuilt = dashboardStatsService.getStats();
+		assertThat(rebuilt).usingRecursiveComparison().ignoringFields("recentActivity").isEqualTo(incremental);
+		assertThat(rebuilt.recentActivity()).extracting(activity -> activity.auditId() + activity.event())
+				.containsExactlyInAnyOrderElementsOf(incremental.recentActivity().stream()
+						.map(activity -> activity.auditId() + activity.event()).toList());
+	}
+
+	private Audit capture(String deviceNumber, String department, String auditor) {
+		String analysis = """
+				{"deviceNumber": %s, "model": "Dell Latitude 5420", "department": "%s"}"""
+				.formatted(deviceNumber == null ? "null" : "\"" + deviceNumber + "\"", department);
+		return assetAuditService.recordCapture(analysis, "uploads/dashboard-test.jpg", auditor, null, null);
+	}
+
+}
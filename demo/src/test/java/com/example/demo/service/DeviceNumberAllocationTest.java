@@ -0,0 +1,172 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Audit;
+import com.example.demo.entity.ImageBlob;
+import com.example.demo.repository.AssetRepository;
+import com.example.demo.repository.AuditRepository;
+import com.example.demo.repository.ImageBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:device-numbers;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false",
+		"asset.device-number.block-size=20"
+})
+class DeviceNumberAllocationTest {
+
+	private static final String UNTAGGED = """
+			{"deviceNumber": null, "model": "Dell OptiPlex 7090", "department": "IT"}""";
+
+	private static final String TAGGED = """
+			{"deviceNumber": "ASSET-2024-00042", "model": "HP ProBook 450", "department": "HR"}""";
+
+	@Autowired
+	private DeviceNumberAllocator allocator;
+
+	@Autowired
+	private AssetAuditService assetAuditService;
+
+	@Autowired
+	private AssetRepository assetRepository;
+
+	@Autowired
+	private AuditRepository auditRepository;
+
+	@Autowired
+	private ImageBlobRepository imageBlobRepository;
+
+	@Autowired
+	private AssetImportService assetImportService;
+
+	@Test
+	void allocatesEveryNumberOnceAcrossThreads() throws Exception {
+		List<String> numbers = runConcurrently(2000, () -> allocator.allocate(2031));
+
+		assertThat(numbers).allMatch(n -> DeviceNumberAllocator.DEVICE_NUMBER.matcher(n).matches());
+		// Blocks are only refilled once used up, so the numbers are exactly 1..2000
+		Set<Long> values = numbers.stream()
+				.map(n -> Long.parseLong(n.substring("ASSET-2031-".length())))
+				.collect(Collectors.toCollection(TreeSet::new));
+		assertThat(values).containsExactlyElementsOf(LongStream.rangeClosed(1, 2000).boxed().toList());
+	}
+
+	@Test
+	void importedNumbersAreNeverAllocatedAgain() throws IOException {
+		// 2032 has no sequence yet; 2033 already has a block cached on this node
+		assertThat(allocator.allocate(2033)).isEqualTo("ASSET-2033-00001");
+		String csv = """
+				deviceNumber,department
+				ASSET-2032-00100,Finance
+				ASSET-2033-00005,Finance
+				ASSET-2033-00003,Finance
+				LEGACY-7,Finance
+				""";
+		assertThat(assetImportService.importAssets(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), AssetImportService.FORMAT_CSV, null).inserted())
+				.isEqualTo(4);
+
+		assertThat(allocator.allocate(2032)).isEqualTo("ASSET-2032-00101");
+		assertThat(allocator.allocate(2033)).isEqualTo("ASSET-2033-00006");
+	}
+
+	@Test
+	void parallelCapturesNeitherMergeNorCollide() throws Exception {
+		List<Audit> untagged = runConcurrently(200,
+				() -> assetAuditService.recordCapture(UNTAGGED, "uploads/concurrency-test.jpg", "auditor", null, null));
+		List<Audit> tagged = runConcurrently(100,
+				() -> assetAuditService.recordCapture(TAGGED, "uploads/concurrency-test.jpg", "auditor", null, null));
+
+		// Every capture without a readable tag becomes its own asset with a fresh number
+		Set<String> deviceNumbers = untagged.stream().map(a -> a.getAsset().getDeviceNumber()).collect(Collectors.toSet());
+		assertThat(deviceNumbers).hasSize(200)
+				.allMatch(n -> DeviceNumberAllocator.DEVICE_NUMBER.matcher(n).matches());
+
+		// Captures of the same tagged device all land on one asset
+		Long taggedAssetId = assetRepository.findByDeviceNumber("ASSET-2024-00042").orElseThrow().getId();
+		assertThat(tagged).extracting(a -> a.getAsset().getId()).containsOnly(taggedAssetId);
+	}
+
+	@Test
+	void concurrentRecapturesKeepImageReferenceCountsExact() throws Exception {
+		String recaptured = """
+				{"deviceNumber": "ASSET-2024-00077", "model": "Lenovo ThinkPad T14", "department": "IT"}""";
+		assetAuditService.recordCapture(recaptured, storeImage(0), "auditor", null, null);
+		List<String> imagePaths = new ArrayList<>();
+		for (int i = 1; i <= 40; i++) {
+			imagePaths.add(storeImage(i));
+		}
+
+		AtomicInteger next = new AtomicInteger();
+		runConcurrently(imagePaths.size(), () -> assetAuditService.recordCapture(
+				recaptured, imagePaths.get(next.getAndIncrement()), "auditor", null, null));
+
+		// Each blob is referenced once per audit keeping it as evidence, plus once if it is the asset's image
+		String assetImage = assetRepository.findByDeviceNumber("ASSET-2024-00077").orElseThrow().getImagePath();
+		Map<String, Long> evidence = auditRepository.findAll().stream()
+				.filter(audit -> "ASSET-2024-00077".equals(audit.getDeviceNumber()))
+				.collect(Collectors.groupingBy(Audit::getEvidenceImagePath, Collectors.counting()));
+		assertThat(evidence).hasSize(41);
+		evidence.forEach((path, audits) -> {
+			ImageBlob blob = imageBlobRepository.findByFilePath(path).orElseThrow();
+			assertThat(blob.getRefCount().longValue()).as(path).isEqualTo(audits + (path.equals(assetImage) ? 1 : 0));
+			assertThat(Files.exists(Paths.get(path))).as(path).isTrue();
+		});
+	}
+
+	// A distinct PNG-signed upload, so each capture holds its own blob
+	private String storeImage(int n) throws IOException {
+		byte[] bytes = new byte[64];
+		byte[] signature = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A};
+		System.arraycopy(signature, 0, bytes, 0, signature.length);
+		bytes[20] = (byte) n;
+		bytes[21] = (byte) 0x77;
+		return assetAuditService.saveAssetImage(new ByteArrayInputStream(bytes));
+	}
+
+	private <T> List<T> runConcurrently(int tasks, Callable<T> task) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(32);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < tasks; i++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+}
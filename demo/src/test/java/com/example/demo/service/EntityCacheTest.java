@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AssetSummary;
+import com.example.demo.dto.ExportQuery;
+import com.example.demo.entity.Audit;
+import com.example.demo.repository.CapturingStatementInspector;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:entity-cache;DB_CLOSE_DELAY=-1",
+		"spring.jpa.show-sql=false",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.demo.repository.CapturingStatementInspector"
+})
+class EntityCacheTest {
+
+	@Autowired
+	private AssetAuditService assetAuditService;
+
+	@Autowired
+	private EntityCacheService entityCacheService;
+
+	@Autowired
+	private ExportService exportService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void repeatedLookupsAreServedFromTheCacheUntilAWrite() {
+		Audit audit = capture("ASSET-2024-00800", "Logistics");
+		Long assetId = audit.getAsset().getId();
+
+		assetAuditService.getAssetById(assetId);
+		assetAuditService.getAssetsByDepartment("Logistics");
+		CapturingStatementInspector.clear();
+		assetAuditService.getAssetById(assetId);
+		assertThat(assetAuditService.getAssetsByDepartment("Logistics")).hasSize(1);
+		assertThat(CapturingStatementInspector.statements()).isEmpty();
+
+		// Completing the audit updates the cached asset and invalidates the department query
+		assetAuditService.completeAudit(audit.getId(), "Good", "", "Completed");
+		assertThat(assetAuditService.getAssetById(assetId)).get()
+				.extracting(asset -> asset.getStatus()).isEqualTo("Completed");
+		capture("ASSET-2024-00801", "Logistics");
+		assertThat(assetAuditService.getAssetsByDepartment("Logistics"))
+				.extracting(AssetSummary::getDeviceNumber)
+				.containsExactlyInAnyOrder("ASSET-2024-00800", "ASSET-2024-00801");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void reportsHitRatiosPerRegion() {
+		Audit audit = capture("ASSET-2024-00802", "Security");
+		assetAuditService.getAuditById(audit.getId());
+		assetAuditService.getAssetById(audit.getAsset().getId());
+		assetAuditService.getAssetById(audit.getAsset().getId());
+
+		Map<String, Object> stats = entityCacheService.getStats();
+		assertThat(stats).containsEntry("enabled", true);
+		assertThat((Long) stats.get("hits")).isPositive();
+		Map<String, Map<String, Object>> regions = (Map<String, Map<String, Object>>) stats.get("regions");
+		assertThat(regions).containsKey("com.example.demo.entity.Asset");
+		assertThat((Double) regions.get("com.example.demo.entity.Asset").get("hitRatio")).isPositive();
+		// The update-timestamps region is reported apart from the entity and query regions it would skew
+		assertThat(regions).doesNotContainKey("default-update-timestamps-region");
+		assertThat(stats).containsKey("updateTimestamps");
+		assertThat(stats.get("hits")).isEqualTo(regions.values().stream().mapToLong(region -> (Long) region.get("hits")).sum());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void exportsDoNotFillTheEntityRegions() throws IOException {
+		capture("ASSET-2024-00803", "Archive");
+		capture("ASSET-2024-00804", "Archive");
+		entityManagerFactory.getCache().evictAll();
+		Map<String, Map<String, Object>> before = (Map<String, Map<String, Object>>) entityCacheService.getStats().get("regions");
+
+		exportService.export(new ExportQuery("assets", "csv", false, "Archive", null, null, null), new ByteArrayOutputStream());
+		exportService.export(new ExportQuery("audits", "csv", false, null, null, null, null), new ByteArrayOutputStream());
+
+		Map<String, Map<String, Object>> after = (Map<String, Map<String, Object>>) entityCacheService.getStats().get("regions");
+		for (String region : new String[] {"com.example.demo.entity.Asset", "com.example.demo.entity.Audit"}) {
+			assertThat(after.get(region).get("puts")).as(region).isEqualTo(before.get(region).get("puts"));
+		}
+	}
+
+	private Audit capture(String deviceNumber, String department) {
+		String analysis = """
+				{"deviceNumber": "%s", "model": "Zebra TC52", "department": "%s"}""".formatted(deviceNumber, department);
+		return assetAuditService.recordCapture(analysis, "uploads/cache-test.jpg", "auditor", null, null);
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeoIndexTest {
+
+	@Test
+	void radiusAndBoxQueriesMatchABruteForceScan() {
+		GeoIndex index = new GeoIndex(250);
+		Random random = new Random(7);
+		int points = 20_000;
+		double[][] coordinates = new double[points][];
+		for (int id = 0; id < points; id++) {
+			coordinates[id] = new double[]{10.7 + random.nextDouble() * 0.1, 106.6 + random.nextDouble() * 0.1};
+			index.put(id, coordinates[id][0], coordinates[id][1]);
+		}
+
+		for (int q = 0; q < 50; q++) {
+			double lat = 10.7 + random.nextDouble() * 0.1;
+			double lon = 106.6 + random.nextDouble() * 0.1;
+			long expectedNearby = 0;
+			long expectedInBox = 0;
+			for (double[] point : coordinates) {
+				if (GeoIndex.distanceMeters(lat, lon, point[0], point[1]) <= 300) {
+					expectedNearby++;
+				}
+				if (point[0] >= lat - 0.003 && point[0] <= lat + 0.003 && point[1] >= lon - 0.003 && point[1] <= lon + 0.003) {
+					expectedInBox++;
+				}
+			}
+
+			List<GeoIndex.GeoHit> nearby = index.nearby(lat, lon, 300, points);
+			assertThat(nearby).hasSize((int) expectedNearby);
+			assertThat(nearby).isSortedAccordingTo((a, b) -> Double.compare(a.distanceMeters(), b.distanceMeters()));
+			assertThat(index.within(lat - 0.003, lon - 0.003, lat + 0.003, lon + 0.003, points)).hasSize((int) expectedInBox);
+		}
+	}
+
+	@Test
+	void movedAndRemovedPointsLeaveTheirOldCell() {
+		GeoIndex index = new GeoIndex(250);
+		index.put(1, 10.7769, 106.7009);
+		index.put(2, 10.7770, 106.7010);
+
+		index.put(1, 21.0285, 105.8542);
+		index.remove(2);
+
+		assertThat(index.nearby(10.7769, 106.7009, 500, 10)).isEmpty();
+		assertThat(index.nearby(21.0285, 105.8542, 10, 10)).extracting(GeoIndex.GeoHit::id).containsExactly(1L);
+		assertThat(index.size()).isEqualTo(1);
+	}
+
+	@Test
+	void radiusQueriesWrapAroundTheAntimeridian() {
+		GeoIndex index = new GeoIndex(250);
+		index.put(1, -16.5, 179.9995);
+		index.put(2, -16.5, -179.9995);
+
+		assertThat(index.nearby(-16.5, 179.9999, 200, 10)).extracting(GeoIndex.GeoHit::id).containsExactlyInAnyOrder(1L, 2L);
+	}
+
+	@Test
+	void aRebuildNeverOverwritesNewerLiveUpdates() {
+		GeoIndex index = new GeoIndex(250);
+		index.put(1, 10.7769, 106.7009);
+		index.put(2, 10.7770, 106.7010);
+
+		index.beginRebuild();
+		// Written while the rebuild's older snapshot is still loading
+		index.put(1, 21.0285, 105.8542);
+		index.remove(2);
+		index.putFromRebuild(1, 10.7769, 106.7009);
+		index.putFromRebuild(2, 10.7770, 106.7010);
+		index.putFromRebuild(3, 16.0544, 108.2022);
+		index.endRebuild();
+
+		assertThat(index.nearby(10.7769, 106.7009, 500, 10)).isEmpty();
+		assertThat(index.nearby(21.0285, 105.8542, 10, 10)).extracting(GeoIndex.GeoHit::id).containsExactly(1L);
+		assertThat(index.nearby(16.0544, 108.2022, 10, 10)).extracting(GeoIndex.GeoHit::id).containsExactly(3L);
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+}
@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LocalBarcodeAnalyzerTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final LocalBarcodeAnalyzer analyzer = new LocalBarcodeAnalyzer(2048);
+
+	@Test
+	void readsAssetTagAndSerialLabels() throws IOException {
+		BufferedImage photo = photo(1200, 900);
+		drawLabel(photo, codeSetB("ASSET-2024-00042"), 100, 150, 3);
+		drawLabel(photo, codeSetB("S/N: XK42-7781"), 100, 500, 2);
+
+		JsonNode analysis = objectMapper.readTree(analyzer.analyze(png(photo)));
+
+		assertEquals("ASSET-2024-00042", analysis.get("deviceNumber").asText());
+		assertEquals("XK42-7781", analysis.get("serialNumber").asText());
+		assertFalse(analysis.has("department"));
+	}
+
+	@Test
+	void readsLabelsPhotographedSidewaysOrUpsideDown() throws IOException {
+		BufferedImage photo = photo(1000, 400);
+		drawLabel(photo, codeSetC("123456789012"), 80, 120, 3);
+
+		assertEquals("123456789012", read(rotate(photo, 90)).get("barcode").asText());
+		assertEquals("123456789012", read(rotate(photo, 180)).get("barcode").asText());
+	}
+
+	@Test
+	void leavesFieldsOutWhenNoLabelIsReadable() throws IOException {
+		JsonNode analysis = read(photo(800, 600));
+
+		assertEquals(0, analysis.size());
+		assertThrows(IOException.class, () -> analyzer.analyze("not an image".getBytes()));
+	}
+
+	private JsonNode read(BufferedImage image) throws IOException {
+		return objectMapper.readTree(analyzer.analyze(png(image)));
+	}
+
+	// Symbol values for text in code set B, with start, check and stop symbols
+	static List<Integer> codeSetB(String text) {
+		List<Integer> values = new ArrayList<>();
+		values.add(Code128Reader.START_B);
+		for (char c : text.toCharArray()) {
+			values.add(c - 32);
+		}
+		return withCheckAndStop(values);
+	}
+
+	static List<Integer> codeSetC(String digits) {
+		List<Integer> values = new ArrayList<>();
+		values.add(Code128Reader.START_C);
+		for (int i = 0; i < digits.length(); i += 2) {
+			values.add(Integer.parseInt(digits.substring(i, i + 2)));
+		}
+		return withCheckAndStop(values);
+	}
+
+	private static List<Integer> withCheckAndStop(List<Integer> values) {
+		int checksum = values.get(0);
+		for (int i = 1; i < values.size(); i++) {
+			checksum += i * values.get(i);
+		}
+		values.add(checksum % 103);
+		values.add(Code128Reader.STOP);
+		return values;
+	}
+
+	// A slightly noisy, unevenly lit background, like a photo of a desk
+	static BufferedImage photo(int width, int height) {
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Random random = new Random(42);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				int shade = 150 + x * 40 / width + random.nextInt(12);
+				image.setRGB(x, y, new Color(shade, shade - 10, shade - 20).getRGB());
+			}
+		}
+		return image;
+	}
+
+	// White label with a quiet zone of ten modules on each side
+	static void drawLabel(BufferedImage image, List<Integer> values, int left, int top, int moduleWidth) {
+		int modules = 20 + (values.size() - 1) * 11 + 13;
+		Graphics2D g = image.createGraphics();
+		g.setColor(new Color(245, 245, 240));
+		g.fillRect(left, top, modules * moduleWidth, 80);
+		g.setColor(new Color(25, 25, 30));
+		int x = left + 10 * moduleWidth;
+		for (int value : values) {
+			int[] widths = Code128Reader.pattern(value);
+			for (int i = 0; i < widths.length; i++) {
+				if (i % 2 == 0) {
+					g.fillRect(x, top + 10, widths[i] * moduleWidth, 60);
+				}
+				x += widths[i] * moduleWidth;
+			}
+		}
+		g.dispose();
+	}
+
+	static byte[] png(BufferedImage image) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", out);
+		return out.toByteArray();
+	}
+
+	private static BufferedImage rotate(BufferedImage image, int degrees) {
+		boolean quarter = degrees % 180 != 0;
+		int width = quarter ? image.getHeight() : image.getWidth();
+		int height = quarter ? image.getWidth() : image.getHeight();
+		AffineTransform transform = new AffineTransform();
+		transform.translate(width / 2.0, height / 2.0);
+		transform.rotate(Math.toRadians(degrees));
+		transform.translate(-image.getWidth() / 2.0, -image.getHeight() / 2.0);
+		BufferedImage rotated = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		new AffineTransformOp(transform, AffineTransformOp.TYPE_NEAREST_NEIGHBOR).filter(image, rotated);
+		return rotated;
+	}
+}
@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import com.example.demo.service.SearchIndex.DocKey;
+import com.example.demo.service.SearchIndex.Hit;
+import com.example.demo.service.SearchIndex.SearchDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTest {
+
+	private final SearchIndex index = new SearchIndex();
+
+	@Test
+	void exactTermsMatchBeforeAnyPrefixIsTried() {
+		index.put(asset(1, Map.of("Scan station", 1.0)));
+		index.put(asset(2, Map.of("Zebra scanner", 1.0)));
+
+		assertEquals(List.of(1L), ids("scan"));
+		assertEquals(List.of(2L), ids("scanne"));
+		// A single letter is too short to expand
+		assertEquals(List.of(), ids("s"));
+	}
+
+	@Test
+	void ranksByFieldBoostAndByHowManyQueryTermsMatch() {
+		index.put(asset(1, Map.of("ASSET-2024-00001", 3.0, "Lobby", 1.0)));
+		index.put(asset(2, Map.of("ASSET-2024-00002", 3.0, "Lobby printer", 2.0)));
+		index.put(asset(3, Map.of("ASSET-2024-00003", 3.0, "Printer", 2.0)));
+
+		assertEquals(List.of(2L, 1L), ids("lobby"));
+		// Only asset 2 matches both terms; the others are pushed down by their partial coverage
+		assertEquals(List.of(2L, 3L, 1L), ids("lobby printer"));
+	}
+
+	@Test
+	void matchesMisspelledTermsWithinTheEditDistance() {
+		index.put(asset(1, Map.of("Zebra scanner", 1.0)));
+		index.put(asset(2, Map.of("Canon printer", 1.0)));
+
+		// Transposed letters count as one edit
+		assertEquals(List.of(1L), ids("scnaner"));
+		assertEquals(List.of(2L), ids("printre"));
+		// Too short for fuzzy matching, and too far from any indexed term
+		assertEquals(List.of(), ids("cnn"));
+		assertEquals(List.of(), ids("scxxner"));
+	}
+
+	@Test
+	void editDistanceIsOptimalStringAlignment() {
+		assertEquals(0, SearchIndex.editDistance("printer", "printer", 2));
+		assertEquals(1, SearchIndex.editDistance("printer", "printre", 2));
+		assertEquals(1, SearchIndex.editDistance("scanner", "scaner", 2));
+		// Unlike full Damerau-Levenshtein, a transposed pair is not edited again
+		assertEquals(3, SearchIndex.editDistance("ca", "abc", 5));
+		// Gives up once the limit is passed
+		assertEquals(2, SearchIndex.editDistance("abcdef", "uvwxyz", 1));
+	}
+
+	@Test
+	void fuzzyAndPrefixMatchesScoreBelowExactOnes() {
+		index.put(asset(1, Map.of("Scanner", 1.0)));
+		index.put(asset(2, Map.of("Scanners", 1.0)));
+		index.put(asset(3, Map.of("Printer", 1.0)));
+
+		double exact = score("printer", 3);
+		double fuzzy = score("printre", 3);
+		double prefix = score("scanne", 1);
+		assertTrue(fuzzy < exact, fuzzy + " should be below " + exact);
+		assertTrue(prefix < score("scanner", 1));
+	}
+
+	@Test
+	void ignoresAccentsAndCase() {
+		index.put(asset(1, Map.of("Ph\u00f2ng K\u1ebf to\u00e1n, \u0110\u00e0 N\u1eb5ng", 1.0)));
+
+		assertEquals(List.of(1L), ids("ke toan"));
+		assertEquals(List.of(1L), ids("DA NANG"));
+	}
+
+	@Test
+	void removedDocumentsAndTheirTermsAreGone() {
+		index.put(asset(1, Map.of("Zebra scanner", 1.0)));
+		index.put(asset(2, Map.of("Zebra printer", 1.0)));
+
+		index.remove(new DocKey(SearchDocuments.ASSET, 1L));
+
+		assertEquals(1, index.size());
+		assertEquals(List.of(2L), ids("zebra"));
+		assertEquals(List.of(), ids("scanner"));
+		assertEquals(List.of(), ids("scann"));
+		assertEquals(List.of(), ids("scnaner"));
+	}
+
+	@Test
+	void replacingADocumentDropsItsOldTerms() {
+		index.put(asset(1, Map.of("Zebra scanner", 1.0)));
+		index.put(asset(1, Map.of("Canon printer", 1.0)));
+
+		assertEquals(1, index.size());
+		assertEquals(List.of(), ids("zebra"));
+		assertEquals(List.of(1L), ids("canon"));
+	}
+
+	@Test
+	void filtersByType() {
+		index.put(asset(1, Map.of("Zebra", 1.0)));
+		index.put(new SearchDocument(new DocKey(SearchDocuments.AUDIT, 1L), "audit", null, Map.of("Zebra", 1.0)));
+
+		assertEquals(2, index.search("zebra", Set.of(), 10).size());
+		List<Hit> audits = index.search("zebra", Set.of(SearchDocuments.AUDIT), 10);
+		assertEquals(1, audits.size());
+		assertEquals(SearchDocuments.AUDIT, audits.get(0).key().type());
+	}
+
+	@Test
+	void aRebuildNeverOverwritesNewerLiveUpdates() {
+		index.put(asset(1, Map.of("Zebra scanner", 1.0)));
+		index.put(asset(2, Map.of("Canon printer", 1.0)));
+
+		index.beginRebuild();
+		assertEquals(0, index.size());
+		// Written while the rebuild's older snapshot is still loading
+		index.put(asset(1, Map.of("Honeywell scanner", 1.0)));
+		index.remove(new DocKey(SearchDocuments.ASSET, 2L));
+		index.put(asset(3, Map.of("Brother labeller", 1.0)));
+		index.putFromRebuild(asset(1, Map.of("Zebra scanner", 1.0)));
+		index.putFromRebuild(asset(2, Map.of("Canon printer", 1.0)));
+		index.putFromRebuild(asset(4, Map.of("Epson projector", 1.0)));
+		index.endRebuild();
+
+		assertEquals(List.of(1L), ids("honeywell"));
+		assertEquals(List.of(), ids("zebra"));
+		assertEquals(List.of(), ids("canon"));
+		assertEquals(List.of(3L), ids("brother"));
+		assertEquals(List.of(4L), ids("epson"));
+
+		// Once the rebuild has finished, later writes apply as usual
+		index.putFromRebuild(asset(1, Map.of("Zebra scanner", 1.0)));
+		assertEquals(List.of(1L), ids("zebra"));
+	}
+
+	private List<Long> ids(String query) {
+		return index.search(query, Set.of(), 10).stream().map(hit -> hit.key().id()).toList();
+	}
+
+	private double score(String query, long id) {
+		return index.search(query, Set.of(), 10).stream()
+				.filter(hit -> hit.key().id() == id)
+				.mapToDouble(Hit::score)
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private static SearchDocument asset(long id, Map<String, Double> fields) {
+		return new SearchDocument(new DocKey(SearchDocuments.ASSET, id), "asset " + id, null, fields);
+	}
+}
@@ -0,0 +1,153 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TieredImageAnalyzerTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicInteger remoteImages = new AtomicInteger();
+	private volatile boolean modelDown;
+	private HttpServer server;
+
+	@BeforeEach
+	void startFakeModel() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/chat/completions", this::handleChatCompletion);
+		server.start();
+	}
+
+	@AfterEach
+	void stopFakeModel() {
+		server.stop(0);
+	}
+
+	@Test
+	void callsTheRemoteModelOnlyForPhotosMissingRequiredFields() throws IOException {
+		BufferedImage tagged = LocalBarcodeAnalyzerTest.photo(900, 500);
+		LocalBarcodeAnalyzerTest.drawLabel(tagged, LocalBarcodeAnalyzerTest.codeSetB("ASSET-2024-00042"), 60, 100, 3);
+		BufferedImage serialOnly = LocalBarcodeAnalyzerTest.photo(900, 500);
+		LocalBarcodeAnalyzerTest.drawLabel(serialOnly, LocalBarcodeAnalyzerTest.codeSetB("SN 77-ABC"), 60, 100, 3);
+
+		TieredImageAnalyzer analyzer = new TieredImageAnalyzer(new LocalBarcodeAnalyzer(2048), remoteAnalyzer(),
+				new String[]{"deviceNumber"});
+		List<String> analyses = analyzer.analyze(List.of(
+				LocalBarcodeAnalyzerTest.png(tagged), LocalBarcodeAnalyzerTest.png(serialOnly)));
+
+		assertEquals(1, remoteImages.get());
+		JsonNode local = objectMapper.readTree(analyses.get(0));
+		assertEquals("ASSET-2024-00042", local.get("deviceNumber").asText());
+		JsonNode merged = objectMapper.readTree(analyses.get(1));
+		// The barcode reading wins over the model's; the model fills in what labels cannot say
+		assertEquals("77-ABC", merged.get("serialNumber").asText());
+		assertEquals("Finance", merged.get("department").asText());
+		assertEquals(1L, analyzer.getStats().get("answeredLocally"));
+		assertEquals(1L, analyzer.getStats().get("sentToRemote"));
+	}
+
+	@Test
+	void keepsLocalReadingsWhenTheRemoteModelFails() throws IOException {
+		modelDown = true;
+		TieredImageAnalyzer analyzer = new TieredImageAnalyzer(new LocalBarcodeAnalyzer(2048), remoteAnalyzer(),
+				new String[]{"deviceNumber"});
+
+		AssetImageAnalyzer.PartialAnalysisException failure = assertThrows(
+				AssetImageAnalyzer.PartialAnalysisException.class, () -> analyzer.analyze(taggedAndSerialOnly()));
+
+		List<String> analyses = failure.getAnalyses();
+		assertEquals("ASSET-2024-00042", objectMapper.readTree(analyses.get(0)).get("deviceNumber").asText());
+		JsonNode unresolved = objectMapper.readTree(analyses.get(1));
+		assertEquals("77-ABC", unresolved.get("serialNumber").asText());
+		assertEquals(TieredImageAnalyzer.UNRESOLVED_NOTE, unresolved.get("notes").asText());
+		assertFalse(unresolved.has("department"));
+		assertEquals(1L, analyzer.getStats().get("remoteFailures"));
+	}
+
+	@Test
+	void neverReplacesLocalReadingsWithMockDataOrCachesThem() throws IOException {
+		modelDown = true;
+		TieredImageAnalyzer analyzer = new TieredImageAnalyzer(new LocalBarcodeAnalyzer(2048), remoteAnalyzer(),
+				new String[]{"deviceNumber"});
+		VisionAnalysisCache cache = new VisionAnalysisCache(null, 100, Duration.ofHours(1), false);
+		VisionAIService service = new VisionAIService(List.of(analyzer), TieredImageAnalyzer.NAME, cache, 4, 1,
+				new WorkerThreads(false));
+		try {
+			List<byte[]> images = taggedAndSerialOnly();
+			List<String> analyses = service.analyzeAssetImages(images);
+
+			assertEquals("ASSET-2024-00042", objectMapper.readTree(analyses.get(0)).get("deviceNumber").asText());
+			assertEquals("77-ABC", objectMapper.readTree(analyses.get(1)).get("serialNumber").asText());
+			assertFalse(analyses.get(1).contains("SN-ABC123456"));
+			assertTrue(cache.get(cache.hash(images.get(1))).isEmpty());
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	private static List<byte[]> taggedAndSerialOnly() throws IOException {
+		BufferedImage tagged = LocalBarcodeAnalyzerTest.photo(900, 500);
+		LocalBarcodeAnalyzerTest.drawLabel(tagged, LocalBarcodeAnalyzerTest.codeSetB("ASSET-2024-00042"), 60, 100, 3);
+		BufferedImage serialOnly = LocalBarcodeAnalyzerTest.photo(900, 500);
+		LocalBarcodeAnalyzerTest.drawLabel(serialOnly, LocalBarcodeAnalyzerTest.codeSetB("SN 77-ABC"), 60, 100, 3);
+		return List.of(LocalBarcodeAnalyzerTest.png(tagged), LocalBarcodeAnalyzerTest.png(serialOnly));
+	}
+
+	private RemoteVisionAnalyzer remoteAnalyzer() {
+		VisionApiClient client = new VisionApiClient(Duration.ofSeconds(2), Duration.ofSeconds(10), 4,
+				Duration.ofSeconds(5), 1, Duration.ofMillis(50), Duration.ofSeconds(1), 5, Duration.ofSeconds(30),
+				new WorkerThreads(false));
+		RemoteVisionAnalyzer remote = new RemoteVisionAnalyzer(client, new ImagePreprocessor(1024, 0.85f));
+		ReflectionTestUtils.setField(remote, "apiKey", "test-key");
+		ReflectionTestUtils.setField(remote, "apiUrl",
+				"http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions");
+		ReflectionTestUtils.setField(remote, "model", "test-model");
+		return remote;
+	}
+
+	private void handleChatCompletion(HttpExchange exchange) throws IOException {
+		if (modelDown) {
+			exchange.getRequestBody().readAllBytes();
+			exchange.sendResponseHeaders(503, -1);
+			exchange.close();
+			return;
+		}
+		JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+		for (JsonNode part : request.get("messages").get(0).get("content")) {
+			if ("image_url".equals(part.get("type").asText())) {
+				remoteImages.incrementAndGet();
+			}
+		}
+		ObjectNode result = objectMapper.createObjectNode();
+		result.put("department", "Finance");
+		result.put("serialNumber", "misread");
+		ObjectNode response = objectMapper.createObjectNode();
+		response.putArray("choices").addObject().putObject("message").put("content", result.toString());
+
+		byte[] body = objectMapper.writeValueAsBytes(response);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.AnalysisCacheRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class VisionAIServiceBatchTest {
+
+	private static final int IMAGE_COUNT = 20;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final AtomicInteger requestCount = new AtomicInteger();
+	private HttpServer server;
+
+	@BeforeEach
+	void startStubServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/chat/completions", this::handleChatCompletion);
+		server.setExecutor(Executors.newFixedThreadPool(8));
+		server.start();
+	}
+
+	@AfterEach
+	void stopStubServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void batchModePacksImagesAndDemultiplexesInOrder() {
+		List<byte[]> images = new ArrayList<>();
+		for (int i = 0; i < IMAGE_COUNT; i++) {
+			images.add(("image-" + i).getBytes(StandardCharsets.UTF_8));
+		}
+
+		VisionAIService single = createService(1, 1);
+		long singleStart = System.nanoTime();
+		List<String> singleAnalyses = new ArrayList<>();
+		for (byte[] image : images) {
+			singleAnalyses.add(single.analyzeAssetImage(image));
+		}
+		long singleNanos = System.nanoTime() - singleStart;
+		int singleRequests = requestCount.getAndSet(0);
+
+		VisionAIService batched = createService(4, 4);
+		long batchStart = System.nanoTime();
+		List<String> batchAnalyses = batched.analyzeAssetImages(images);
+		long batchNanos = System.nanoTime() - batchStart;
+		int batchRequests = requestCount.get();
+
+		assertEquals(IMAGE_COUNT, singleRequests);
+		assertEquals(IMAGE_COUNT / 4, batchRequests);
+		for (int i = 0; i < IMAGE_COUNT; i++) {
+			assertEquals("image-" + i, single.parseAnalysisResult(singleAnalyses.get(i)).get("serialNumber"));
+			assertEquals("image-" + i, batched.parseAnalysisResult(batchAnalyses.get(i)).get("serialNumber"));
+		}
+
+		// Every request pays the simulated model latency, so four images per request over four
+		// connections should cut the per-image time by far more than half
+		double singlePerImageMillis = singleNanos / 1e6 / IMAGE_COUNT;
+		double batchPerImageMillis = batchNanos / 1e6 / IMAGE_COUNT;
+		assertTrue(batchPerImageMillis * 2 < singlePerImageMillis,
+				String.format("batched %.1f ms per image, single %.1f ms", batchPerImageMillis, singlePerImageMillis));
+	}
+
+	private VisionAIService createService(int imagesPerRequest, int concurrency) {
+		VisionAnalysisCache cache = new VisionAnalysisCache(
+				mock(AnalysisCacheRepository.class), 1000, Duration.ofHours(1), false);
+		VisionApiClient client = new VisionApiClient(Duration.ofSeconds(5), Duration.ofSeconds(30), 8,
+				Duration.ofSeconds(10), 3, Duration.ofMillis(100), Duration.ofSeconds(1), 5, Duration.ofSeconds(30),
+				new WorkerThreads(false));
+		RemoteVisionAnalyzer remote = new RemoteVisionAnalyzer(client, new ImagePreprocessor(1024, 0.85f));
+		ReflectionTestUtils.setField(remote, "apiKey", "test-key");
+		ReflectionTestUtils.setField(remote, "apiUrl",
+				"http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions");
+		ReflectionTestUtils.setField(remote, "model", "test-model");
+		return new VisionAIService(List.of(remote), RemoteVisionAnalyzer.NAME, cache, imagesPerRequest, concurrency,
+				new WorkerThreads(false));
+	}
+
+	// Echoes each image's bytes back as its serial number so the test can check ordering
+	private void handleChatCompletion(HttpExchange exchange) throws IOException {
+		requestCount.incrementAndGet();
+		JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+
+		ArrayNode results = objectMapper.createArrayNode();
+		for (JsonNode part : request.get("messages").get(0).get("content")) {
+			if ("image_url".equals(part.get("type").asText())) {
+				String url = part.get("image_url").get("url").asText();
+				String imageText = new String(Base64.getDecoder().decode(url.substring(url.indexOf(',') + 1)),
+						StandardCharsets.UTF_8);
+				ObjectNode result = results.addObject();
+				result.put("deviceNumber", "ASSET-2025-" + imageText);
+				result.put("serialNumber", imageText);
+			}
+		}
+
+		try {
+			// Simulated model latency per request
+			Thread.sleep(50);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		String content = results.size() == 1 ? results.get(0).toString() : results.toString();
+		ObjectNode response = objectMapper.createObjectNode();
+		response.putArray("choices").addObject().putObject("message").put("content", content);
+
+		byte[] body = objectMapper.writeValueAsBytes(response);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+}
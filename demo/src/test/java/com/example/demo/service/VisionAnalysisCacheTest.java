@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.AnalysisCacheEntry;
+import com.example.demo.repository.AnalysisCacheRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class VisionAnalysisCacheTest {
+
+	private final AnalysisCacheRepository repository = mock(AnalysisCacheRepository.class);
+
+	@Test
+	void evictsTheLeastRecentlyUsedEntry() {
+		VisionAnalysisCache cache = new VisionAnalysisCache(repository, 2, Duration.ofHours(1), false);
+		cache.put("a", "analysis-a");
+		cache.put("b", "analysis-b");
+		// Reading "a" makes "b" the eldest, so it goes when "c" arrives
+		assertEquals(Optional.of("analysis-a"), cache.get("a"));
+		cache.put("c", "analysis-c");
+
+		assertEquals(Optional.empty(), cache.get("b"));
+		assertEquals(Optional.of("analysis-a"), cache.get("a"));
+		assertEquals(Optional.of("analysis-c"), cache.get("c"));
+		assertEquals(1L, cache.getStats().get("evictions"));
+		verifyNoInteractions(repository);
+	}
+
+	@Test
+	void expiredEntriesAreMissesAndLeaveTheCache() throws InterruptedException {
+		VisionAnalysisCache cache = new VisionAnalysisCache(repository, 10, Duration.ofMillis(100), false);
+		cache.put("a", "analysis-a");
+		assertEquals(Optional.of("analysis-a"), cache.get("a"));
+
+		Thread.sleep(200);
+
+		assertEquals(Optional.empty(), cache.get("a"));
+		assertEquals(0, cache.getStats().get("size"));
+		assertEquals(1L, cache.getStats().get("evictions"));
+		assertEquals(1L, cache.getStats().get("misses"));
+	}
+
+	@Test
+	void promotedRowsKeepTheirRemainingLifetime() throws InterruptedException {
+		Duration ttl = Duration.ofHours(1);
+		// Stored long ago, with under half a second of its lifetime left
+		AnalysisCacheEntry row = new AnalysisCacheEntry("a", "analysis-a",
+				LocalDateTime.now().minus(ttl).plus(Duration.ofMillis(400)));
+		when(repository.findById("a")).thenReturn(Optional.of(row));
+		VisionAnalysisCache cache = new VisionAnalysisCache(repository, 10, ttl, true);
+
+		assertEquals(Optional.of("analysis-a"), cache.get("a"));
+		assertEquals(Optional.of("analysis-a"), cache.get("a"));
+		assertEquals(1L, cache.getStats().get("persistentHits"));
+		assertEquals(1L, cache.getStats().get("memoryHits"));
+		verify(repository, never()).delete(any());
+
+		// A promotion that restarted the TTL would still serve this from memory
+		Thread.sleep(800);
+
+		assertEquals(Optional.empty(), cache.get("a"));
+		assertEquals(1L, cache.getStats().get("memoryHits"));
+		assertEquals(1L, cache.getStats().get("misses"));
+		verify(repository).delete(row);
+	}
+
+	@Test
+	void purgeDeletesRowsOlderThanTheTtl() {
+		Duration ttl = Duration.ofHours(1);
+		when(repository.deleteByCreatedAtBefore(any())).thenReturn(3);
+		VisionAnalysisCache cache = new VisionAnalysisCache(repository, 10, ttl, true);
+
+		LocalDateTime before = LocalDateTime.now().minus(ttl);
+		cache.purgeExpired();
+		LocalDateTime after = LocalDateTime.now().minus(ttl);
+
+		ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+		verify(repository).deleteByCreatedAtBefore(cutoff.capture());
+		assertTrue(!cutoff.getValue().isBefore(before) && !cutoff.getValue().isAfter(after));
+		assertEquals(3L, cache.getStats().get("evictions"));
+	}
+
+	@Test
+	void purgeLeavesTheDatabaseAloneWhenNotPersistent() {
+		new VisionAnalysisCache(repository, 10, Duration.ofHours(1), false).purgeExpired();
+
+		verifyNoInteractions(repository);
+	}
+
+}
@@ -0,0 +1,179 @@
+package com.example.demo.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VisionApiClientTest {
+
+	private final AtomicInteger calls = new AtomicInteger();
+	private volatile Responder responder;
+	private HttpServer server;
+	private String url;
+
+	@BeforeEach
+	void startFakeServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/v1/chat/completions", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			responder.respond(exchange, calls.incrementAndGet());
+		});
+		server.setExecutor(Executors.newFixedThreadPool(4));
+		server.start();
+		url = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+	}
+
+	@AfterEach
+	void stopFakeServer() {
+		server.stop(0);
+	}
+
+	@Test
+	void retriesServerErrorsUntilSuccess() throws IOException {
+		responder = (exchange, call) -> reply(exchange, call < 3 ? 503 : 200, "call-" + call);
+		VisionApiClient client = client(8, Duration.ofSeconds(5), 3, 5, Duration.ofSeconds(30));
+
+		assertEquals("call-3", client.post(url, "key", this::writeBody));
+		assertEquals(3, calls.get());
+		assertEquals(2L, client.getStats().get("retries"));
+		assertEquals("CLOSED", client.getStats().get("circuit"));
+	}
+
+	@Test
+	void waitsForRetryAfter() throws IOException {
+		responder = (exchange, call) -> {
+			if (call == 1) {
+				exchange.getResponseHeaders().set("Retry-After", "1");
+				reply(exchange, 429, "slow down");
+			} else {
+				reply(exchange, 200, "ok");
+			}
+		};
+		VisionApiClient client = client(8, Duration.ofSeconds(5), 3, 5, Duration.ofSeconds(30));
+
+		long started = System.nanoTime();
+		assertEquals("ok", client.post(url, "key", this::writeBody));
+		assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(950));
+		assertEquals(2, calls.get());
+	}
+
+	@Test
+	void givesUpWhenRetryAfterExceedsMaxBackoff() {
+		responder = (exchange, call) -> {
+			exchange.getResponseHeaders().set("Retry-After", "120");
+			reply(exchange, 503, "maintenance");
+		};
+		VisionApiClient client = client(8, Duration.ofSeconds(5), 3, 5, Duration.ofSeconds(30));
+
+		assertThrows(IOException.class, () -> client.post(url, "key", this::writeBody));
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void opensCircuitAfterRepeatedFailuresAndProbesAfterCoolDown() throws Exception {
+		responder = (exchange, call) -> reply(exchange, 500, "down");
+		VisionApiClient client = client(8, Duration.ofSeconds(5), 1, 2, Duration.ofMillis(300));
+
+		assertThrows(IOException.class, () -> client.post(url, "key", this::writeBody));
+		assertThrows(IOException.class, () -> client.post(url, "key", this::writeBody));
+		assertEquals("OPEN", client.getStats().get("circuit"));
+
+		// Fails fast without reaching the server while open
+		assertThrows(VisionApiClient.UnavailableException.class, () -> client.post(url, "key", this::writeBody));
+		assertEquals(2, calls.get());
+
+		Thread.sleep(400);
+		responder = (exchange, call) -> reply(exchange, 200, "recovered");
+		assertEquals("recovered", client.post(url, "key", this::writeBody));
+		assertEquals("CLOSED", client.getStats().get("circuit"));
+	}
+
+	@Test
+	void bulkheadRejectsCallsBeyondTheConcurrencyLimit() throws Exception {
+		CountDownLatch received = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		responder = (exchange, call) -> {
+			received.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			reply(exchange, 200, "ok");
+		};
+		VisionApiClient client = client(1, Duration.ofSeconds(5), 1, 5, Duration.ofSeconds(30));
+
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> {
+			try {
+				return client.post(url, "key", this::writeBody);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		assertTrue(received.await(5, TimeUnit.SECONDS));
+
+		assertThrows(VisionApiClient.UnavailableException.class, () -> client.post(url, "key", this::writeBody));
+		assertEquals(1L, client.getStats().get("bulkheadRejections"));
+
+		release.countDown();
+		assertEquals("ok", first.get(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void responseTimeoutBoundsASlowUpstream() {
+		responder = (exchange, call) -> {
+			try {
+				Thread.sleep(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			reply(exchange, 200, "too late");
+		};
+		VisionApiClient client = client(8, Duration.ofMillis(200), 1, 5, Duration.ofSeconds(30));
+
+		long started = System.nanoTime();
+		assertThrows(IOException.class, () -> client.post(url, "key", this::writeBody));
+		assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(1500));
+	}
+
+	private VisionApiClient client(int maxConcurrent, Duration responseTimeout, int maxAttempts,
+			int failureThreshold, Duration openDuration) {
+		return new VisionApiClient(Duration.ofSeconds(2), responseTimeout, maxConcurrent, Duration.ofMillis(100),
+				maxAttempts, Duration.ofMillis(20), Duration.ofSeconds(5), failureThreshold, openDuration,
+				new WorkerThreads(false));
+	}
+
+	private void writeBody(OutputStream out) throws IOException {
+		out.write("{\"model\":\"test\"}".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void reply(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	@FunctionalInterface
+	private interface Responder {
+		void respond(HttpExchange exchange, int call) throws IOException;
+	}
+}